@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# stand-in for the RI signer on Linux, Test.exe only runs on Windows. The signature is the SHA-256 of the lines.
+#
+#   signer.sh <file>   sign a file and write the signature to <file>.sign, as Test.exe does, a process per license
+#   signer.sh -        sign stdin and print the signature, a process per license without a file
+#   signer.sh          worker of com.revenera.gcs.signer.SignerPool, framed requests on stdin
+#
+# worker protocol
+#   request    decimal length, '\n', then that many bytes of license lines
+#   response   "OK " or "ERR ", decimal length, '\n', then that many bytes of signature or error message
+#   batch      '*', decimal count, '\n', then that many requests, answered in order
+#   health     '?', '\n', answered by an empty OK, the worker exits at the end of stdin
+#
+# for testing the pool, the lines "crash" and "sleep <seconds>" make the worker exit and stall
+
+export LC_ALL=C
+
+if [ "$1" = "-" ]; then
+  sha256sum | cut -d ' ' -f 1
+  exit
+fi
+
+if [ $# -gt 0 ]; then
+  sha256sum < "$1" | cut -d ' ' -f 1 > "$1.sign"
+  exit
+fi
+
+respond() {
+  printf '%s %d\n%s' "$1" "${#2}" "$2"
+}
+
+while IFS= read -r length; do
+  # the requests of a batch follow, signed one by one like any other
+  if [[ "$length" =~ ^\*[0-9]+$ ]]; then
+    continue
+  fi
+
+  if [ "$length" = "?" ]; then
+    respond OK ""
+    continue
+  fi
+
+  if [[ ! "$length" =~ ^[0-9]+$ ]]; then
+    respond ERR "bad length $length"
+    exit 1
+  fi
+
+  lines=""
+  if [ "$length" -gt 0 ]; then
+    IFS= read -r -d '' -N "$length" lines || exit 1
+  fi
+
+  # a single line, with or without its line separator
+  line="${lines%$'\n'}"
+  line="${line%$'\r'}"
+  case "$line" in
+    crash)
+      exit 3
+      ;;
+    sleep\ *)
+      sleep "${line#sleep }" < /dev/null > /dev/null
+      ;;
+  esac
+
+  respond OK "$(printf '%s' "$lines" | sha256sum | cut -d ' ' -f 1)"
+done
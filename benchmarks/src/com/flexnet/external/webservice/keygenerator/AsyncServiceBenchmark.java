@@ -0,0 +1,178 @@
+package com.flexnet.external.webservice.keygenerator;
+
+import com.flexnet.external.type.GeneratorRequest;
+import com.flexnet.external.type.GeneratorResponse;
+import com.flexnet.external.type.ObjectFactory;
+import com.revenera.gcs.benchmark.Fixtures;
+import com.sun.xml.ws.api.server.AsyncProviderCallback;
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBIntrospector;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.soap.SOAPFaultException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A load test of the endpoints: a burst of requests arrives at once on a container of a few threads and an
+ * operation is the whole burst answered. Both read the request payload and write the answer with
+ * {@link LicenseGeneratorServiceAsync}, sync on the container thread as the synchronous endpoint does, async
+ * hands the payload over and leaves the container thread as soon as it is queued, as WSServlet does with
+ * async support. RI licenses are signed by a
+ * {@link com.revenera.gcs.benchmark.SleepingSigner}, which waits like a remote signer, with enough signer
+ * threads that the signer is not the limit. -jvmArgsAppend -Drevenera.async.virtual=true runs async on virtual
+ * threads on a JDK that has them.
+ *
+ * Setup fails unless async answers what sync does, and a licGeneratorException fault for a request without a
+ * license technology.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Drevenera.ri.signature=true",
+                                  "-Drevenera.signer.backend.RI=com.revenera.gcs.benchmark.SleepingSigner",
+                                  "-Drevenera.signer.cache.bytes=0",
+                                  "-Drevenera.signer.concurrency=1024",
+                                  "-Drevenera.signer.queue=1024"})
+@State(Scope.Benchmark)
+public class AsyncServiceBenchmark {
+
+  /** container threads taking requests */
+  @Param({"8"})
+  public int container;
+
+  /** requests arriving at once */
+  @Param({"64", "256"})
+  public int burst;
+
+  private ExecutorService threads;
+  private LicenseGeneratorServiceAsync provider;
+  private JAXBContext context;
+  private byte[] payload;
+
+  @Setup
+  public void setup() throws Exception {
+    Fixtures.application();
+
+    this.threads = Executors.newFixedThreadPool(this.container);
+    this.provider = new LicenseGeneratorServiceAsync();
+    this.context = JAXBContext.newInstance(ObjectFactory.class);
+
+    final GeneratorRequest request = Fixtures.generatorRequest("RI", 8, new Random(Fixtures.seed));
+    this.payload = marshal(new ObjectFactory().createGeneratorRequest(request));
+
+    final String expected = new LicenseGeneratorServiceImpl().generateLicense(request).getLicenseFiles().get(0).getValue().toString();
+    final Object answer = JAXBIntrospector.getValue(this.context.createUnmarshaller().unmarshal(call(source(this.payload))));
+    if (!(answer instanceof GeneratorResponse)
+        || !expected.equals(((GeneratorResponse) answer).getLicenseFiles().get(0).getValue().toString())) {
+      throw new IllegalStateException("async answers differently | " + answer);
+    }
+
+    final GeneratorRequest orphan = Fixtures.generatorRequest("RI", 8, new Random(Fixtures.seed));
+    orphan.setLicenseTechnology(null);
+    try {
+      call(source(marshal(new ObjectFactory().createGeneratorRequest(orphan))));
+      throw new IllegalStateException("no fault for a request without a technology");
+    }
+    catch (final ExecutionException e) {
+      if (!(e.getCause() instanceof SOAPFaultException)
+          || ((SOAPFaultException) e.getCause()).getFault().getDetail() == null
+          || !"licGeneratorException".equals(((SOAPFaultException) e.getCause()).getFault().getDetail().getFirstChild().getLocalName())) {
+        throw new IllegalStateException("not a licGeneratorException fault | " + e.getCause());
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.threads.shutdownNow();
+  }
+
+  private byte[] marshal(final Object element) throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    this.context.createMarshaller().marshal(element, bytes);
+    return bytes.toByteArray();
+  }
+
+  private static Source source(final byte[] payload) {
+    return new StreamSource(new ByteArrayInputStream(payload));
+  }
+
+  private Source call(final Source source) throws Exception {
+    final CompletableFuture<Source> answer = new CompletableFuture<>();
+    this.provider.invoke(source, callback(answer), null);
+    return answer.get(30, TimeUnit.SECONDS);
+  }
+
+  private static AsyncProviderCallback<Source> callback(final CompletableFuture<Source> answer) {
+    return new AsyncProviderCallback<Source>() {
+      @Override
+      public void send(final Source response) {
+        answer.complete(response);
+      }
+
+      @Override
+      public void sendError(final Throwable t) {
+        answer.completeExceptionally(t);
+      }
+    };
+  }
+
+  @Benchmark
+  public long sync() throws Exception {
+    final CountDownLatch done = new CountDownLatch(this.burst);
+    for (int i = 0; i < this.burst; i++) {
+      this.threads.execute(() -> {
+        try {
+          this.provider.call(source(this.payload));
+        }
+        catch (final Exception e) {
+          throw new RuntimeException(e);
+        }
+        finally {
+          done.countDown();
+        }
+      });
+    }
+    done.await();
+    return done.getCount();
+  }
+
+  @Benchmark
+  public long async() throws Exception {
+    final CountDownLatch done = new CountDownLatch(this.burst);
+    final AtomicInteger failed = new AtomicInteger();
+    final AsyncProviderCallback<Source> callback = new AsyncProviderCallback<Source>() {
+      @Override
+      public void send(final Source response) {
+        done.countDown();
+      }
+
+      @Override
+      public void sendError(final Throwable t) {
+        failed.incrementAndGet();
+        done.countDown();
+      }
+    };
+
+    for (int i = 0; i < this.burst; i++) {
+      this.threads.execute(() -> this.provider.invoke(source(this.payload), callback, null));
+    }
+    done.await();
+    if (failed.get() > 0) {
+      throw new IllegalStateException(failed.get() + " of " + this.burst + " requests failed");
+    }
+    return done.getCount();
+  }
+}
@@ -0,0 +1,41 @@
+package com.revenera.gcs;
+
+import com.revenera.gcs.utils.Settings;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start, initializing the application once per fork, finding the implementors through the index the build
+ * writes or by scanning the implementor package. The scan only looks in the first classpath entry holding the
+ * package, the compiled sources have to come before the benchmarks.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class ApplicationBenchmark {
+
+  /** true loads the implementor index, false scans */
+  @Param({"true", "false"})
+  public String index;
+
+  @Setup
+  public void setup() {
+    System.setProperty("revenera.implementor.index", this.index);
+  }
+
+  @Benchmark
+  public Application initialize() throws Exception {
+    final Application application = new Application();
+    application.initialize(Paths.get(Settings.get("revenera.benchmark.web.inf", "WebContent/WEB-INF")).toAbsolutePath().toString());
+
+    if (application.getImplementorFactory().getDefaultImplementor() == null) {
+      throw new IllegalStateException("no implementors found");
+    }
+    return application;
+  }
+}
@@ -0,0 +1,43 @@
+package com.revenera.gcs;
+
+import com.revenera.gcs.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the license technology of a request payload, the first step of routing every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBaseBenchmark {
+
+  /** payload type, a generator request is found first, a fulfillment record set last but one */
+  @Param({"GeneratorRequest", "FulfillmentRecordSet"})
+  public String payload;
+
+  private ServiceBase service;
+  private Object request;
+
+  @Setup
+  public void setup() {
+    Fixtures.application();
+
+    this.service = new ServiceBase() {
+    };
+    this.request = "GeneratorRequest".equals(this.payload)
+            ? Fixtures.generatorRequest("RI", 8, new Random(Fixtures.seed))
+            : Fixtures.fulfillmentRecordSet("RI", 1, i -> Collections.emptyList());
+  }
+
+  @Benchmark
+  public String getLicenseTechnology() {
+    return this.service.getLicenseTechnology(this.request);
+  }
+}
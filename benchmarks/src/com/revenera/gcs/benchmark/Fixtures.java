@@ -0,0 +1,185 @@
+package com.revenera.gcs.benchmark;
+
+import com.flexnet.external.type.*;
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.LogLevels;
+import com.revenera.gcs.utils.Settings;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.function.IntFunction;
+
+/**
+ * Synthetic requests shaped like the ones FNO sends, shared by the benchmarks. Everything is built from a fixed
+ * seed so that runs compare like with like.
+ */
+public final class Fixtures {
+
+  public static final long seed = 20250222L;
+
+  /** distinct feature names, fulfillments of one customer share most of them */
+  public static final int feature_names = 64;
+
+  private static final DatatypeFactory datatypes;
+
+  static {
+    try {
+      datatypes = DatatypeFactory.newInstance();
+    }
+    catch (final DatatypeConfigurationException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private Fixtures() {
+  }
+
+  /**
+   * the application singleton the implementors look up, resources are read from WebContent/WEB-INF
+   * unless -Drevenera.benchmark.web.inf says otherwise. The shipped logging.properties logs everything,
+   * the root level is put back to -Drevenera.benchmark.log.level (default info) so that the figures are
+   * not dominated by trace output.
+   */
+  public static synchronized Application application() {
+    if (Application.getInstance() == null) {
+      final Path webInf = Paths.get(Settings.get("revenera.benchmark.web.inf", "WebContent/WEB-INF"));
+      try {
+        new Application().initialize(webInf.toAbsolutePath().toString());
+      }
+      catch (final Exception e) {
+        throw new RuntimeException(e);
+      }
+      LogLevels.setRoot(Settings.getEnum("revenera.benchmark.log.level", Log.Level.info));
+    }
+    return Application.getInstance();
+  }
+
+  public static XMLGregorianCalendar date(final int year, final int month, final int day) {
+    final GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+    calendar.clear();
+    calendar.set(year, month - 1, day);
+    return datatypes.newXMLGregorianCalendar(calendar);
+  }
+
+  public static Feature feature(final String featureName, final String featureVersion, final int featureCount) {
+    return new Feature() {
+      {
+        this.name = featureName;
+        this.version = featureVersion;
+        this.count = featureCount;
+      }
+    };
+  }
+
+  public static CustomAttributeDescriptor attribute(final String attributeName, final String attributeValue) {
+    return new CustomAttributeDescriptor() {
+      {
+        this.name = attributeName;
+        this.value = attributeValue;
+      }
+    };
+  }
+
+  public static LicenseTechnology technology(final String technology, final LicenseFileTypeENC... types) {
+    final List<LicenseFileDefinition> definitions = new ArrayList<>();
+    for (int i = 0; i < types.length; i++) {
+      final LicenseFileTypeENC type = types[i];
+      final String file = "License" + (i == 0 ? "" : String.valueOf(i));
+
+      definitions.add(new LicenseFileDefinition() {
+        {
+          this.name = file;
+          this.licenseStorageType = type;
+        }
+      });
+    }
+
+    return new LicenseTechnology() {
+      {
+        this.name = technology;
+        this.licenseFileDefinitions = definitions;
+      }
+    };
+  }
+
+  /**
+   * @param features feature lines in the request, spread over products of up to 8 features
+   * @param random picks names, versions and counts
+   */
+  public static GeneratorRequest generatorRequest(final String technology, final int features, final Random random) {
+    final List<Product> products = new ArrayList<>();
+
+    for (int i = 0; i < features; i += 8) {
+      final List<Feature> list = new ArrayList<>();
+      for (int j = i; j < Math.min(features, i + 8); j++) {
+        list.add(feature("feature" + random.nextInt(feature_names), "1." + random.nextInt(3), 1 + random.nextInt(100)));
+      }
+
+      products.add(new Product() {
+        {
+          this.features = list;
+        }
+      });
+    }
+
+    final String subnet = random.nextBoolean() ? "10.0." + random.nextInt(4) + ".0/24" : null;
+
+    return new GeneratorRequest() {
+      {
+        this.entitledProducts = products;
+        this.startDate = date(2025, 1, 1);
+        this.expirationDate = date(2026, 1 + random.nextInt(12), 1);
+        this.licenseTechnology = technology(technology, LicenseFileTypeENC.TEXT);
+        this.licenseModel = new LicenseModel() {
+          {
+            this.fulfillmentTimeAttributes = new AttributeSet() {
+              {
+                this.attributes = subnet == null
+                        ? new ArrayList<>()
+                        : new ArrayList<>(Collections.singletonList(attribute("SUBNET_MASK", subnet)));
+              }
+            };
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * @param fulfillments records in the set
+   * @param files license file contents of the n-th record
+   */
+  public static FulfillmentRecordSet fulfillmentRecordSet(final String technology,
+                                                         final int fulfillments,
+                                                         final IntFunction<List<LicenseFileMapItem>> files) {
+    final LicenseTechnology tech = technology(technology, LicenseFileTypeENC.TEXT);
+
+    final List<FulfillmentRecord> records = new ArrayList<>();
+    for (int i = 0; i < fulfillments; i++) {
+      final List<LicenseFileMapItem> items = files.apply(i);
+
+      records.add(new FulfillmentRecord() {
+        {
+          this.licenseTechnology = tech;
+          this.licenseFiles = items;
+        }
+      });
+    }
+
+    return new FulfillmentRecordSet() {
+      {
+        this.fulfillments = records;
+      }
+    };
+  }
+}
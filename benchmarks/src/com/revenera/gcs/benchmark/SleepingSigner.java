@@ -0,0 +1,39 @@
+package com.revenera.gcs.benchmark;
+
+import com.revenera.gcs.signer.LicenseSigner;
+import com.revenera.gcs.signer.SignerException;
+import com.revenera.gcs.utils.Settings;
+
+import java.util.List;
+
+/**
+ * A signer that waits like a remote one and signs nothing, named as a backend with
+ * -Drevenera.signer.backend.RI=com.revenera.gcs.benchmark.SleepingSigner. Waits
+ * -Drevenera.benchmark.signer.sleep.ms (default 50) per license.
+ */
+public final class SleepingSigner implements LicenseSigner {
+
+  private final long sleep = Settings.getLong("revenera.benchmark.signer.sleep.ms", 50);
+
+  @Override
+  public String sign(final List<String> lines) {
+    try {
+      Thread.sleep(this.sleep);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SignerException("interrupted", e);
+    }
+    return "SIGNATURE=" + lines.size();
+  }
+
+  @Override
+  public String keyVersion() {
+    return "sleeping";
+  }
+
+  @Override
+  public String describe() {
+    return "sleeping " + this.sleep + "ms";
+  }
+}
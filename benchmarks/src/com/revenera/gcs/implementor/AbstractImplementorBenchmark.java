@@ -0,0 +1,107 @@
+package com.revenera.gcs.implementor;
+
+import com.flexnet.external.type.ConsolidatedLicense;
+import com.flexnet.external.type.FulfillmentRecordSet;
+import com.flexnet.external.type.LicenseFileDefinition;
+import com.flexnet.external.type.LicenseFileMapItem;
+import com.flexnet.external.type.LicenseFileTypeENC;
+import com.flexnet.external.webservice.keygenerator.LicenseGeneratorServiceInterface;
+import com.revenera.gcs.benchmark.Fixtures;
+import com.revenera.gcs.implementor.hcl.UnenforcedLicenseGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The shared implementor plumbing: building license files, the default text consolidation and implementor lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AbstractImplementorBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Files {
+    /** license file definitions of the technology, alternating text and binary */
+    @Param({"1", "4"})
+    public int definitions;
+
+    AbstractImplementor implementor;
+    List<LicenseFileDefinition> files;
+    String text;
+    byte[] bytes;
+
+    @Setup
+    public void setup() {
+      Fixtures.application();
+
+      this.implementor = new DefaultLicenseGenerator();
+
+      final LicenseFileTypeENC[] types = new LicenseFileTypeENC[this.definitions];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = i % 2 == 0 ? LicenseFileTypeENC.TEXT : LicenseFileTypeENC.BINARY;
+      }
+      this.files = Fixtures.technology("DEF", types).getLicenseFileDefinitions();
+      this.text = String.join("\n", Collections.nCopies(32, "INCREMENT feature vendor 1.0 permanent 1 SIGN=0"));
+      this.bytes = this.text.getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  /** the base consolidation, which the DEF implementor overrides */
+  @State(Scope.Benchmark)
+  public static class Consolidate {
+    /** fulfillments in the set, one text license each */
+    @Param({"1", "100", "1000"})
+    public int fulfillments;
+
+    AbstractImplementor implementor;
+    FulfillmentRecordSet recordSet;
+
+    @Setup
+    public void setup() {
+      Fixtures.application();
+
+      this.implementor = new UnenforcedLicenseGenerator();
+      this.recordSet = Fixtures.fulfillmentRecordSet("NONE", this.fulfillments, i -> Collections.singletonList(new LicenseFileMapItem() {
+        {
+          this.name = "License";
+          this.value = "INCREMENT feature" + i + " vendor 1.0 permanent " + (i + 1) + " SIGN=0";
+        }
+      }));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Lookup {
+    /** technology looked up, DEF is registered, ri in another case, XYZ falls back to the default implementor */
+    @Param({"RI", "DEF", "ri", "XYZ"})
+    public String technology;
+
+    ImplementorFactory factory;
+
+    @Setup
+    public void setup() {
+      this.factory = Fixtures.application().getImplementorFactory();
+    }
+  }
+
+  @Benchmark
+  public List<LicenseFileMapItem> makeLicenseFiles(final Files state) {
+    return state.implementor.makeLicenseFiles(state.files, state.text, state.bytes);
+  }
+
+  @Benchmark
+  public ConsolidatedLicense consolidateFulfillments(final Consolidate state) throws Exception {
+    return state.implementor.consolidateFulfillments(state.recordSet);
+  }
+
+  @Benchmark
+  public LicenseGeneratorServiceInterface getImplementor(final Lookup state) {
+    return state.factory.getImplementor(state.technology);
+  }
+}
@@ -0,0 +1,123 @@
+package com.revenera.gcs.implementor;
+
+import com.flexnet.external.type.BulkGeneratorRequest;
+import com.flexnet.external.type.BulkGeneratorResponse;
+import com.flexnet.external.type.BulkGeneratorResult;
+import com.flexnet.external.type.GeneratorRequest;
+import com.flexnet.external.webservice.keygenerator.LicenseGeneratorServiceImpl;
+import com.revenera.gcs.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The licenses of a batch of requests through the service, one generateLicense call per request (sequential)
+ * or one generateLicenses call for the batch (bulk), an operation is the whole batch. Signed signs the RI
+ * licenses in process with a throwaway EC key and no signature cache, so that every request is signed.
+ * Throughput per core is the score over the bulk threads (revenera.bulk.threads, default the processors).
+ *
+ * Setup fails unless the bulk results come back in request order, generated like the sequential ones, and
+ * unless a request without a technology in the middle of a batch fails on its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkGenerationBenchmark {
+
+  /** requests in the batch */
+  @Param({"16", "256"})
+  public int requests;
+
+  /** technology of the requests, mixed alternates RI and DEF */
+  @Param({"RI", "DEF", "mixed"})
+  public String technology;
+
+  private LicenseGeneratorServiceImpl service;
+  private List<GeneratorRequest> batch;
+  private BulkGeneratorRequest bulk;
+
+  @Setup
+  public void setup() throws Exception {
+    Fixtures.application();
+
+    this.service = new LicenseGeneratorServiceImpl();
+
+    final Random random = new Random(Fixtures.seed);
+    this.batch = new ArrayList<>();
+    for (int i = 0; i < this.requests; i++) {
+      final String tech = "mixed".equals(this.technology) ? (i % 2 == 0 ? "RI" : "DEF") : this.technology;
+      this.batch.add(Fixtures.generatorRequest(tech, 8, random));
+    }
+
+    this.bulk = new BulkGeneratorRequest();
+    this.bulk.setRequests(this.batch);
+
+    final List<BulkGeneratorResult> results = this.service.generateLicenses(this.bulk).getResults();
+    if (results.size() != this.requests) {
+      throw new IllegalStateException(results.size() + " results for " + this.requests + " requests");
+    }
+    for (int i = 0; i < this.requests; i++) {
+      final BulkGeneratorResult result = results.get(i);
+      if (result.getIndex() != i || result.getStatus().getCode() != BulkGeneration.status_generated) {
+        throw new IllegalStateException("result " + i + " | " + result.getIndex() + " | " + result.getStatus().getMessage());
+      }
+      final String expected = this.service.generateLicense(this.batch.get(i)).getLicenseFiles().get(0).getValue().toString();
+      final String generated = result.getGeneratorResponse().getLicenseFiles().get(0).getValue().toString();
+      if (!"DEF".equals(this.batch.get(i).getLicenseTechnology().getName()) && !expected.equals(generated)) {
+        throw new IllegalStateException("result " + i + " differs from generateLicense");
+      }
+    }
+
+    final List<GeneratorRequest> broken = new ArrayList<>(this.batch);
+    final GeneratorRequest orphan = Fixtures.generatorRequest("RI", 8, random);
+    orphan.setLicenseTechnology(null);
+    broken.set(broken.size() / 2, orphan);
+
+    final BulkGeneratorRequest partial = new BulkGeneratorRequest();
+    partial.setRequests(broken);
+    final List<BulkGeneratorResult> partials = this.service.generateLicenses(partial).getResults();
+    for (int i = 0; i < partials.size(); i++) {
+      final boolean failed = partials.get(i).getStatus().getCode() == BulkGeneration.status_failed;
+      if (failed != (i == broken.size() / 2) || failed != (partials.get(i).getGeneratorResponse() == null)) {
+        throw new IllegalStateException("result " + i + " of a batch with one bad request | " + partials.get(i).getStatus().getMessage());
+      }
+    }
+  }
+
+  @Benchmark
+  public void sequential(final Blackhole blackhole) throws Exception {
+    for (final GeneratorRequest request : this.batch) {
+      blackhole.consume(this.service.generateLicense(request));
+    }
+  }
+
+  @Benchmark
+  public BulkGeneratorResponse bulk() throws Exception {
+    return this.service.generateLicenses(this.bulk);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Drevenera.ri.signature=true",
+                                    "-Drevenera.signer.backend.RI=keystore",
+                                    "-Drevenera.signer.key.generate=EC",
+                                    "-Drevenera.signer.cache.bytes=0"})
+  public void sequentialSigned(final Blackhole blackhole) throws Exception {
+    sequential(blackhole);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Drevenera.ri.signature=true",
+                                    "-Drevenera.signer.backend.RI=keystore",
+                                    "-Drevenera.signer.key.generate=EC",
+                                    "-Drevenera.signer.cache.bytes=0"})
+  public BulkGeneratorResponse bulkSigned() throws Exception {
+    return bulk();
+  }
+}
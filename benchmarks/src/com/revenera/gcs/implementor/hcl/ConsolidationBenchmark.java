@@ -0,0 +1,173 @@
+package com.revenera.gcs.implementor.hcl;
+
+import com.revenera.gcs.benchmark.Fixtures;
+import com.revenera.gcs.implementor.Consolidation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Folding the License files of a fulfillment set into one list of feature lines. tree is the original path,
+ * every YAML file deserialized into a list and merged into a TreeMap keyed by {@link FeatureLine#key()}, and
+ * encodedTree the same merge over the binary form. streaming and encoded feed the same YAML and binary files
+ * to a {@link FeatureAggregator}, and parallel splits the binary files over the consolidation pool whatever
+ * their number. cached merges the partial aggregates a {@link ConsolidationCache} kept from a first
+ * consolidation, what a regenerated consolidated license costs when no fulfillment changed.
+ *
+ * Setup renders every aggregate the way consolidateFulfillments does and fails unless they are identical, so
+ * running this benchmark also checks the equivalence of the paths on the generated inputs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsolidationBenchmark {
+
+  /** feature lines per fulfillment */
+  @Param({"8", "64", "512"})
+  public int features;
+
+  /** fulfillments in the set */
+  @Param({"100", "1000"})
+  public int fulfillments;
+
+  private List<String> payloads;
+  private List<String> encoded;
+  private ConsolidationCache cache;
+
+  static String render(final Collection<FeatureLine> lines) {
+    return lines.stream().map(FeatureLine::toString).collect(Collectors.joining("\n"));
+  }
+
+  static void merge(final Map<String, FeatureLine> aggregate, final List<FeatureLine> lines) {
+    lines.forEach(line -> {
+      final String key = line.key();
+
+      if (!aggregate.containsKey(key)) {
+        aggregate.put(key, line);
+      }
+      else {
+        aggregate.get(key).featureCount += line.featureCount;
+      }
+    });
+  }
+
+  @Setup
+  public void setup() {
+    final Random random = new Random(Fixtures.seed);
+
+    this.payloads = new ArrayList<>();
+    this.encoded = new ArrayList<>();
+    for (int i = 0; i < this.fulfillments; i++) {
+      final List<FeatureLine> lines = new ArrayList<>();
+      final String subnet = random.nextBoolean() ? "10.0." + random.nextInt(4) + ".0/24" : null;
+      final int month = 1 + random.nextInt(12);
+
+      Fixtures.generatorRequest("RI", this.features, random).getEntitledProducts().stream()
+              .flatMap(product -> product.getFeatures().stream())
+              .forEach(feature -> lines.add(FeatureLine.create(feature,
+                                                               Fixtures.date(2025, 1, 1),
+                                                               Fixtures.date(2026, month, 1),
+                                                               subnet)));
+
+      this.payloads.add(FeatureLine.serailizeList(lines));
+      this.encoded.add(FeatureLineEncoding.encode(lines));
+    }
+
+    this.cache = new ConsolidationCache(Long.MAX_VALUE);
+
+    final String expected = render(tree().values());
+
+    if (!expected.equals(render(encodedTree().values()))) {
+      throw new IllegalStateException("encoded tree consolidation differs from the tree consolidation");
+    }
+    if (!expected.equals(render(streaming().lines()))) {
+      throw new IllegalStateException("streaming consolidation differs from the tree consolidation");
+    }
+    if (!expected.equals(render(encoded().lines()))) {
+      throw new IllegalStateException("encoded consolidation differs from the tree consolidation");
+    }
+    if (!expected.equals(render(parallel().lines()))) {
+      throw new IllegalStateException("parallel consolidation differs from the tree consolidation");
+    }
+    if (!expected.equals(render(cached().lines())) || !expected.equals(render(cached().lines()))
+        || this.cache.getHits() != this.fulfillments) {
+      throw new IllegalStateException("cached consolidation differs from the tree consolidation");
+    }
+  }
+
+  @Benchmark
+  public Map<String, FeatureLine> tree() {
+    final Map<String, FeatureLine> licenseElements = new TreeMap<>();
+
+    this.payloads.forEach(payload -> merge(licenseElements, FeatureLine.deserializeList(payload)));
+    return licenseElements;
+  }
+
+  @Benchmark
+  public Map<String, FeatureLine> encodedTree() {
+    final Map<String, FeatureLine> licenseElements = new TreeMap<>();
+
+    this.encoded.forEach(payload -> merge(licenseElements, FeatureLineEncoding.read(payload)));
+    return licenseElements;
+  }
+
+  @Benchmark
+  public FeatureAggregator streaming() {
+    final FeatureAggregator licenseElements = new FeatureAggregator();
+
+    this.payloads.forEach(payload -> FeatureLine.aggregate(payload, licenseElements));
+    return licenseElements;
+  }
+
+  @Benchmark
+  public FeatureAggregator encoded() {
+    final FeatureAggregator licenseElements = new FeatureAggregator();
+
+    this.encoded.forEach(payload -> FeatureLineEncoding.aggregate(payload, licenseElements));
+    return licenseElements;
+  }
+
+  @Benchmark
+  public FeatureAggregator parallel() {
+    return Consolidation.aggregate(this.encoded,
+                                   1,
+                                   FeatureAggregator::new,
+                                   (aggregator, payload) -> FeatureLineEncoding.aggregate(payload, aggregator),
+                                   FeatureAggregator::merge);
+  }
+
+  @Benchmark
+  public FeatureAggregator cached() {
+    final FeatureAggregator licenseElements = new FeatureAggregator();
+
+    for (int i = 0; i < this.encoded.size(); i++) {
+      final List<String> values = Collections.singletonList(this.encoded.get(i));
+
+      licenseElements.add(this.cache.get("fulfillment-" + i, values, () -> {
+        final FeatureAggregator aggregator = new FeatureAggregator();
+        values.forEach(value -> FeatureLineEncoding.aggregate(value, aggregator));
+        return aggregator.partial();
+      }));
+    }
+    return licenseElements;
+  }
+
+  /**
+   * the aggregate rendered, what consolidateFulfillments returns
+   */
+  @Benchmark
+  public List<FeatureLine> encodedLines() {
+    return encoded().lines();
+  }
+}
@@ -0,0 +1,64 @@
+package com.revenera.gcs.implementor.hcl;
+
+import com.revenera.gcs.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The round trip of the intermediate RI license format, the legacy YAML and the binary encoding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeatureLineBenchmark {
+
+  @Param({"8", "64", "512"})
+  public int features;
+
+  private List<FeatureLine> lines;
+  private String payload;
+  private String encoded;
+
+  @Setup
+  public void setup() {
+    final Random random = new Random(Fixtures.seed);
+
+    this.lines = new ArrayList<>();
+    Fixtures.generatorRequest("RI", this.features, random).getEntitledProducts().stream()
+            .flatMap(product -> product.getFeatures().stream())
+            .forEach(feature -> this.lines.add(FeatureLine.create(feature,
+                                                                  Fixtures.date(2025, 1, 1),
+                                                                  Fixtures.date(2026, 1 + random.nextInt(12), 1),
+                                                                  random.nextBoolean() ? "10.0.0.0/24" : null)));
+
+    this.payload = FeatureLine.serailizeList(this.lines);
+    this.encoded = FeatureLineEncoding.encode(this.lines);
+  }
+
+  @Benchmark
+  public String serializeList() {
+    return FeatureLine.serailizeList(this.lines);
+  }
+
+  @Benchmark
+  public List<FeatureLine> deserializeList() {
+    return FeatureLine.deserializeList(this.payload);
+  }
+
+  @Benchmark
+  public String encode() {
+    return FeatureLineEncoding.encode(this.lines);
+  }
+
+  @Benchmark
+  public List<FeatureLine> decode() {
+    return FeatureLineEncoding.read(this.encoded);
+  }
+}
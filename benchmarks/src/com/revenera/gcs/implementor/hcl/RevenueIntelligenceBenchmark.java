@@ -0,0 +1,91 @@
+package com.revenera.gcs.implementor.hcl;
+
+import com.flexnet.external.type.ConsolidatedLicense;
+import com.flexnet.external.type.FulfillmentRecordSet;
+import com.flexnet.external.type.GeneratorRequest;
+import com.flexnet.external.type.GeneratorResponse;
+import com.flexnet.external.type.LicenseFileMapItem;
+import com.revenera.gcs.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * generateLicense and consolidateFulfillments of the RI implementor. The fulfillments consolidated are the
+ * License files the implementor generated itself, so the YAML is exactly what FNO sends back.
+ * generateSignedLicense adds the Signature file, signed in process with a throwaway EC key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RevenueIntelligenceBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Generate {
+    /** feature lines in the request */
+    @Param({"8", "64", "512"})
+    public int features;
+
+    RevenueIntelligenceLicenseGenerator generator;
+    GeneratorRequest request;
+
+    @Setup
+    public void setup() {
+      Fixtures.application();
+
+      this.generator = new RevenueIntelligenceLicenseGenerator();
+      this.request = Fixtures.generatorRequest("RI", this.features, new Random(Fixtures.seed));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Consolidate {
+    /** feature lines per fulfillment */
+    @Param({"8", "64"})
+    public int features;
+
+    /** fulfillments in the set */
+    @Param({"10", "100", "1000"})
+    public int fulfillments;
+
+    RevenueIntelligenceLicenseGenerator generator;
+    FulfillmentRecordSet recordSet;
+
+    @Setup
+    public void setup() throws Exception {
+      Fixtures.application();
+
+      this.generator = new RevenueIntelligenceLicenseGenerator();
+
+      final Random random = new Random(Fixtures.seed);
+      final List<List<LicenseFileMapItem>> files = new ArrayList<>();
+      for (int i = 0; i < this.fulfillments; i++) {
+        files.add(this.generator.generateLicense(Fixtures.generatorRequest("RI", this.features, random)).getLicenseFiles());
+      }
+      this.recordSet = Fixtures.fulfillmentRecordSet("RI", this.fulfillments, files::get);
+    }
+  }
+
+  @Benchmark
+  public GeneratorResponse generateLicense(final Generate state) throws Exception {
+    return state.generator.generateLicense(state.request);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Drevenera.ri.signature=true",
+                                    "-Drevenera.signer.backend.RI=keystore",
+                                    "-Drevenera.signer.key.generate=EC"})
+  public GeneratorResponse generateSignedLicense(final Generate state) throws Exception {
+    return state.generator.generateLicense(state.request);
+  }
+
+  @Benchmark
+  public ConsolidatedLicense consolidateFulfillments(final Consolidate state) throws Exception {
+    return state.generator.consolidateFulfillments(state.recordSet);
+  }
+}
@@ -0,0 +1,158 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing one license with the stand-in signer under WEB-INF/executable (revenera.benchmark.signer, default
+ * signer.sh). process starts a signer per license through {@link SignerProcess}, in the revenera.signer.io
+ * mode, pool sends the lines to a worker of a {@link SignerPool}. burst signs from 8 threads at once through
+ * 2 workers, one request per round trip or coalesced into batches. keystore signs in process with a throwaway
+ * key, Ed25519 needs a JVM that has it (15+), cached signs the same lines again through a {@link SignatureCache}
+ * and executor hands the keystore signing to a {@link SignerExecutor} thread.
+ *
+ * Setup fails unless both answer the same for the same lines, in pipe mode where both sign exactly the lines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignerBenchmark {
+
+  /** license lines signed */
+  @Param({"8", "512"})
+  public int lines;
+
+  private Path signer;
+  private List<String> license;
+  private SignerPool pool;
+
+  @State(Scope.Benchmark)
+  public static class Burst {
+    /** most requests per round trip */
+    @Param({"1", "16"})
+    public int batch;
+
+    SignerPool pool;
+    List<String> license;
+
+    @Setup
+    public void setup() {
+      final Application application = Fixtures.application();
+
+      this.pool = new SignerPool(application.getResourcePath("executable", System.getProperty("revenera.benchmark.signer", "signer.sh")),
+                                 2,
+                                 this.batch,
+                                 0);
+      this.license = license(8);
+    }
+
+    @TearDown
+    public void tearDown() {
+      this.pool.close();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class InProcess {
+    /** key type */
+    @Param({"EC", "Ed25519"})
+    public String algorithm;
+
+    KeyStoreSigner signer;
+    LicenseSigner cached;
+    SignerExecutor executor;
+    List<String> license;
+
+    @Setup
+    public void setup() throws Exception {
+      Fixtures.application();
+
+      this.signer = new KeyStoreSigner(KeyStoreSigner.generate(this.algorithm));
+      this.license = license(8);
+
+      if (!this.signer.verify(this.license, this.signer.sign(this.license))) {
+        throw new IllegalStateException("in process signature does not verify");
+      }
+
+      this.cached = new SignatureCache(16L << 20, null, 0).wrap(this.signer);
+      if (!this.signer.verify(this.license, this.cached.sign(this.license))) {
+        throw new IllegalStateException("cached signature does not verify");
+      }
+
+      this.executor = new SignerExecutor(2, 64);
+    }
+
+    @TearDown
+    public void tearDown() {
+      this.executor.close();
+    }
+  }
+
+  static List<String> license(final int count) {
+    final List<String> license = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      license.add("feature-" + (i % Fixtures.feature_names) + " " + (i + 1) + " 2026-01-01T00:00:00Z 10.0.0.0/24");
+    }
+    return license;
+  }
+
+  @Setup
+  public void setup() {
+    final Application application = Fixtures.application();
+
+    this.signer = application.getResourcePath("executable", System.getProperty("revenera.benchmark.signer", "signer.sh"));
+
+    this.license = license(this.lines);
+
+    this.pool = new SignerPool(this.signer, 1, 1, 0);
+
+    if (!process().equals(pool())) {
+      throw new IllegalStateException("pooled signer answers differently from a signer process");
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.pool.close();
+  }
+
+  @Benchmark
+  public String process() {
+    return SignerProcess.sign(this.signer, this.license, SignerPool.timeout);
+  }
+
+  @Benchmark
+  public String pool() {
+    return this.pool.sign(this.license);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String burst(final Burst state) {
+    return state.pool.sign(state.license);
+  }
+
+  @Benchmark
+  public String keystore(final InProcess state) {
+    return state.signer.sign(state.license);
+  }
+
+  @Benchmark
+  public String cached(final InProcess state) {
+    return state.cached.sign(state.license);
+  }
+
+  @Benchmark
+  public String executor(final InProcess state) {
+    return state.executor.sign(state.signer, state.license);
+  }
+}
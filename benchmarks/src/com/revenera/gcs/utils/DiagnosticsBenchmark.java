@@ -0,0 +1,56 @@
+package com.revenera.gcs.utils;
+
+import com.flexnet.external.webservice.keygenerator.LicenseGeneratorServiceImpl;
+import com.revenera.gcs.ServiceOperation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording a request against an endpoint while every benchmark thread hits the same one, the worst case for
+ * the adders and the histogram. stackWalk names the endpoint the way service calls did before timers were
+ * keyed by {@link ServiceOperation}: a stack trace for the method name and a map lookup, kept as the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class DiagnosticsBenchmark {
+
+  private Diagnostics diagnostics;
+  private Diagnostics.Element[] handles;
+  private Diagnostics.Element[] technology;
+
+  @Setup
+  public void setup() {
+    this.diagnostics = new Diagnostics();
+    this.handles = this.diagnostics.register(LicenseGeneratorServiceImpl.class, ServiceOperation.values());
+    this.technology = this.diagnostics.technology("RI", ServiceOperation.values());
+  }
+
+  @Benchmark
+  public void timer() {
+    try (final Diagnostics.Timer timer = this.handles[ServiceOperation.generateLicense.ordinal()].start()) {
+      timer.attribute(this.technology);
+    }
+  }
+
+  @Benchmark
+  public void timerFailed() {
+    try (final Diagnostics.Timer timer = this.handles[ServiceOperation.generateLicense.ordinal()].start()) {
+      timer.fail();
+    }
+  }
+
+  @Benchmark
+  public void stackWalk() {
+    final StackTraceElement frame = Thread.currentThread().getStackTrace()[1];
+
+    try (final Diagnostics.Timer timer = this.diagnostics.element(LicenseGeneratorServiceImpl.class, frame.getMethodName()).start()) {
+      timer.attribute(this.technology);
+    }
+  }
+}
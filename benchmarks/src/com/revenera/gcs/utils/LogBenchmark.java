@@ -0,0 +1,64 @@
+package com.revenera.gcs.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a log call when its level is enabled and when it is not. Enabled lines go through the
+ * {@link LogAppender} buffer, run with -Drevenera.log.console=false to keep the console out of the figures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogBenchmark {
+
+  /** logger types, their levels are set by name */
+  static final class Enabled {
+  }
+
+  static final class Disabled {
+  }
+
+  private Log enabled;
+  private Log disabled;
+  private long sequence;
+
+  @Setup
+  public void setup() {
+    LogLevels.set(Enabled.class.getName(), Log.Level.info);
+    LogLevels.set(Disabled.class.getName(), Log.Level.warning);
+
+    this.enabled = Log.create(Enabled.class);
+    this.disabled = Log.create(Disabled.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    LogLevels.clear(Enabled.class.getName());
+    LogLevels.clear(Disabled.class.getName());
+  }
+
+  @Benchmark
+  public void enabled() {
+    this.enabled.log(Log.Level.info, "request | " + this.sequence++);
+  }
+
+  @Benchmark
+  public void disabled() {
+    this.disabled.log(Log.Level.debug, "request | " + this.sequence++);
+  }
+
+  @Benchmark
+  public void disabledSupplier() {
+    this.disabled.log(Log.Level.debug, () -> "request | " + this.sequence++);
+  }
+
+  @Benchmark
+  public void disabledArray() {
+    this.disabled.array(Log.Level.debug, "request", this.sequence++);
+  }
+}
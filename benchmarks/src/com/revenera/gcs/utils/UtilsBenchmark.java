@@ -0,0 +1,41 @@
+package com.revenera.gcs.utils;
+
+import com.flexnet.external.type.GeneratorRequest;
+import com.revenera.gcs.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The serializers behind logging, the RI license format and the transaction journal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UtilsBenchmark {
+
+  /** feature lines in the serialized request */
+  @Param({"8", "512"})
+  public int features;
+
+  private GeneratorRequest request;
+
+  @Setup
+  public void setup() {
+    this.request = Fixtures.generatorRequest("RI", this.features, new Random(Fixtures.seed));
+  }
+
+  @Benchmark
+  public String safeSerializeYaml() {
+    return Utils.safeSerializeYaml(this.request);
+  }
+
+  @Benchmark
+  public String safeSerializeJson() {
+    return Utils.safeSerializeJson(this.request);
+  }
+}
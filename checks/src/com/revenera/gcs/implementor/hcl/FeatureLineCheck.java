@@ -0,0 +1,137 @@
+package com.revenera.gcs.implementor.hcl;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks that the streaming consolidation of RI License files reads them as the object mapper does, on the
+ * hand-written YAML fixtures in a directory (checks/fixtures/feature-lines).
+ *
+ * Every fixture is consolidated three ways: deserialized into a list and merged by {@link FeatureLine#key()},
+ * folded token by token into a {@link FeatureAggregator}, and folded from its binary encoding. The rendered
+ * lines must be identical, or all paths must fail. Fixtures named malformed-* must fail.
+ *
+ * usage: FeatureLineCheck <fixtures-directory>, exits with 1 when a fixture fails the check
+ */
+public final class FeatureLineCheck {
+
+  private static final PrintStream out = System.out;
+
+  private FeatureLineCheck() {
+  }
+
+  private static String render(final Collection<FeatureLine> lines) {
+    return lines.stream().map(FeatureLine::toString).collect(Collectors.joining("\n"));
+  }
+
+  private static String tree(final String payload) {
+    final Map<String, FeatureLine> aggregate = new TreeMap<>();
+
+    FeatureLine.deserializeList(payload).forEach(line -> {
+      final FeatureLine merged = aggregate.putIfAbsent(line.key(), line);
+      if (merged != null) {
+        merged.featureCount += line.featureCount;
+      }
+    });
+    return render(aggregate.values());
+  }
+
+  private static String streaming(final String payload) {
+    final FeatureAggregator aggregator = new FeatureAggregator();
+    FeatureLine.aggregate(payload, aggregator);
+    return render(aggregator.lines());
+  }
+
+  private static String encoded(final String payload) {
+    final FeatureAggregator aggregator = new FeatureAggregator();
+    FeatureLineEncoding.aggregate(FeatureLineEncoding.encode(FeatureLine.deserializeList(payload)), aggregator);
+    return render(aggregator.lines());
+  }
+
+  /**
+   * @return null when the fixture passes, what is wrong otherwise
+   */
+  static String check(final String name, final String payload) {
+    String expected = null;
+    RuntimeException failure = null;
+    try {
+      expected = tree(payload);
+    }
+    catch (final RuntimeException e) {
+      failure = e;
+    }
+
+    String streamed = null;
+    try {
+      streamed = streaming(payload);
+    }
+    catch (final RuntimeException e) {
+      if (failure == null) {
+        return "streaming fails where deserializing does not | " + e.getMessage();
+      }
+    }
+
+    if (failure != null) {
+      return streamed != null
+             ? "streaming reads what deserializing rejects | " + failure.getMessage()
+             : null;
+    }
+    if (name.startsWith("malformed")) {
+      return "accepted";
+    }
+    if (!expected.equals(streamed)) {
+      return "streaming differs\n" + expected + "\n--\n" + streamed;
+    }
+
+    final String encoded = encoded(payload);
+    if (!expected.equals(encoded)) {
+      return "encoded differs\n" + expected + "\n--\n" + encoded;
+    }
+    return null;
+  }
+
+  public static void main(final String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("usage: FeatureLineCheck <fixtures-directory>");
+      System.exit(2);
+    }
+
+    final List<Path> fixtures;
+    try (final Stream<Path> files = Files.list(Paths.get(args[0]))) {
+      fixtures = files.filter(file -> file.getFileName().toString().endsWith(".yaml")).sorted().collect(Collectors.toList());
+    }
+    if (fixtures.isEmpty()) {
+      System.err.println("no fixtures in " + args[0]);
+      System.exit(2);
+    }
+
+    int failed = 0;
+    for (final Path fixture : fixtures) {
+      final String name = fixture.getFileName().toString();
+      final String problem = check(name, new String(Files.readAllBytes(fixture), StandardCharsets.UTF_8));
+
+      if (problem == null) {
+        out.println("ok      " + name);
+      }
+      else {
+        out.println("FAILED  " + name + " | " + problem);
+        failed++;
+      }
+    }
+
+    out.println(fixtures.size() + " fixtures, " + failed + " failed");
+    if (failed > 0) {
+      System.exit(1);
+    }
+  }
+}
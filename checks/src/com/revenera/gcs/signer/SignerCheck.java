@@ -0,0 +1,123 @@
+package com.revenera.gcs.signer;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that a license signs the same whichever way it reaches the signer: a {@link SignerProcess} per license
+ * over a pipe and over a file, and the {@link SignerPool} one request and a batch per round trip.
+ *
+ * Every license is signed all four ways and the signatures must be identical, and equal to the signature of
+ * {@link SignerProcess#input(List)} given to the signer by hand as a file.
+ *
+ * usage: SignerCheck <signer-executable>, exits with 1 when a license signs differently
+ */
+public final class SignerCheck {
+
+  private static final PrintStream out = System.out;
+
+  private SignerCheck() {
+  }
+
+  private static Map<String, List<String>> licenses() {
+    final Map<String, List<String>> licenses = new LinkedHashMap<>();
+    licenses.put("empty", Collections.<String>emptyList());
+    licenses.put("empty-line", Collections.singletonList(""));
+    licenses.put("two-lines", Arrays.asList("a", "b"));
+    licenses.put("blank-lines", Arrays.asList("", "a", "", ""));
+    licenses.put("spaces", Arrays.asList("  feature 1  ", "\tindented"));
+    licenses.put("utf-8", Arrays.asList("café über", "日本"));
+
+    final List<String> large = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      large.add("feature-" + i + " " + (i + 1) + " 2026-01-01T00:00:00Z 10.0.0.0/24");
+    }
+    licenses.put("large", large);
+    return licenses;
+  }
+
+  /**
+   * @return the signature of the input file, written by hand
+   */
+  private static String byHand(final Path signer, final List<String> lines) throws Exception {
+    final Path directory = Files.createTempDirectory("signer-check");
+    final Path input = directory.resolve("input.lic");
+    final Path output = directory.resolve("input.lic.sign");
+    try {
+      Files.write(input, SignerProcess.input(lines));
+
+      final List<String> command = new ArrayList<>(SignerPool.command(signer));
+      command.add(input.toString());
+      final int status = new ProcessBuilder(command).inheritIO().start().waitFor();
+      if (status != 0) {
+        throw new IllegalStateException("signer exited with " + status);
+      }
+      return new String(Files.readAllBytes(output), StandardCharsets.UTF_8).trim();
+    }
+    finally {
+      Files.deleteIfExists(output);
+      Files.deleteIfExists(input);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  public static void main(final String[] args) throws Exception {
+    if (args.length != 1) {
+      System.err.println("usage: SignerCheck <signer-executable>");
+      System.exit(2);
+    }
+
+    final Path signer = Paths.get(args[0]).toAbsolutePath();
+    final Map<String, List<String>> licenses = licenses();
+
+    final SignerPool pool = new SignerPool(signer, 1, 1, 0);
+    final SignerPool batched = new SignerPool(signer, 1, licenses.size(), 1000);
+
+    int failed = 0;
+    try {
+      // all at once, so that the batched pool sends them in one round trip
+      final Map<String, CompletableFuture<String>> batches = new LinkedHashMap<>();
+      licenses.forEach((name, lines) -> batches.put(name, CompletableFuture.supplyAsync(() -> batched.sign(lines))));
+
+      for (final Map.Entry<String, List<String>> license : licenses.entrySet()) {
+        final List<String> lines = license.getValue();
+
+        final Map<String, String> signatures = new LinkedHashMap<>();
+        signatures.put("hand", byHand(signer, lines));
+        signatures.put("pipe", SignerProcess.sign(signer, lines, SignerPool.timeout, SignerProcess.Io.pipe));
+        signatures.put("file", SignerProcess.sign(signer, lines, SignerPool.timeout, SignerProcess.Io.file));
+        signatures.put("pool", pool.sign(lines));
+        signatures.put("batch", batches.get(license.getKey()).get());
+
+        if (signatures.values().stream().distinct().count() == 1) {
+          out.println("ok      " + license.getKey());
+        }
+        else {
+          out.println("FAILED  " + license.getKey() + " | " + signatures.entrySet()
+                                                                     .stream()
+                                                                     .map(signature -> signature.getKey() + " " + signature.getValue())
+                                                                     .collect(Collectors.joining(", ")));
+          failed++;
+        }
+      }
+    }
+    finally {
+      pool.close();
+      batched.close();
+    }
+
+    out.println(licenses.size() + " licenses, " + failed + " failed");
+    System.exit(failed > 0 ? 1 : 0);
+  }
+}
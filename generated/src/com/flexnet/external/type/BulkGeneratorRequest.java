@@ -0,0 +1,83 @@
+
+package com.flexnet.external.type;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+
+/**
+ * <p>Java class for anonymous complex type.
+ * 
+ * <p>The following schema fragment specifies the expected content contained within this class.
+ * 
+ * <pre>
+ * &lt;complexType>
+ *   &lt;complexContent>
+ *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
+ *       &lt;sequence>
+ *         &lt;element name="requests" type="{urn:com.flexnet.external.type}GeneratorRequest" maxOccurs="unbounded" minOccurs="0"/>
+ *       &lt;/sequence>
+ *     &lt;/restriction>
+ *   &lt;/complexContent>
+ * &lt;/complexType>
+ * </pre>
+ * 
+ * 
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "requests"
+})
+@XmlRootElement(name = "BulkGeneratorRequest")
+public class BulkGeneratorRequest {
+
+    @XmlElement(nillable = true)
+    protected List<GeneratorRequest> requests;
+
+    /**
+     * Gets the value of the requests property.
+     * 
+     * <p>
+     * This accessor method returns a reference to the live list,
+     * not a snapshot. Therefore any modification you make to the
+     * returned list will be present inside the JAXB object.
+     * This is why there is not a <CODE>set</CODE> method for the requests property.
+     * 
+     * <p>
+     * For example, to add a new item, do as follows:
+     * <pre>
+     *    getRequests().add(newItem);
+     * </pre>
+     * 
+     * 
+     * <p>
+     * Objects of the following type(s) are allowed in the list
+     * {@link GeneratorRequest }
+     * 
+     * 
+     */
+    public List<GeneratorRequest> getRequests() {
+        if (requests == null) {
+            requests = new ArrayList<GeneratorRequest>();
+        }
+        return this.requests;
+    }
+
+    /**
+     * Sets the value of the requests property.
+     * 
+     * @param requests
+     *     allowed object is
+     *     {@link GeneratorRequest }
+     *     
+     */
+    public void setRequests(List<GeneratorRequest> requests) {
+        this.requests = requests;
+    }
+
+}
@@ -0,0 +1,83 @@
+
+package com.flexnet.external.type;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+
+/**
+ * <p>Java class for anonymous complex type.
+ * 
+ * <p>The following schema fragment specifies the expected content contained within this class.
+ * 
+ * <pre>
+ * &lt;complexType>
+ *   &lt;complexContent>
+ *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
+ *       &lt;sequence>
+ *         &lt;element name="results" type="{urn:com.flexnet.external.type}BulkGeneratorResult" maxOccurs="unbounded" minOccurs="0"/>
+ *       &lt;/sequence>
+ *     &lt;/restriction>
+ *   &lt;/complexContent>
+ * &lt;/complexType>
+ * </pre>
+ * 
+ * 
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "results"
+})
+@XmlRootElement(name = "BulkGeneratorResponse")
+public class BulkGeneratorResponse {
+
+    @XmlElement(nillable = true)
+    protected List<BulkGeneratorResult> results;
+
+    /**
+     * Gets the value of the results property.
+     * 
+     * <p>
+     * This accessor method returns a reference to the live list,
+     * not a snapshot. Therefore any modification you make to the
+     * returned list will be present inside the JAXB object.
+     * This is why there is not a <CODE>set</CODE> method for the results property.
+     * 
+     * <p>
+     * For example, to add a new item, do as follows:
+     * <pre>
+     *    getResults().add(newItem);
+     * </pre>
+     * 
+     * 
+     * <p>
+     * Objects of the following type(s) are allowed in the list
+     * {@link BulkGeneratorResult }
+     * 
+     * 
+     */
+    public List<BulkGeneratorResult> getResults() {
+        if (results == null) {
+            results = new ArrayList<BulkGeneratorResult>();
+        }
+        return this.results;
+    }
+
+    /**
+     * Sets the value of the results property.
+     * 
+     * @param results
+     *     allowed object is
+     *     {@link BulkGeneratorResult }
+     *     
+     */
+    public void setResults(List<BulkGeneratorResult> results) {
+        this.results = results;
+    }
+
+}
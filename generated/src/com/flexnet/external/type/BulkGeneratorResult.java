@@ -0,0 +1,109 @@
+
+package com.flexnet.external.type;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+
+/**
+ * <p>Java class for BulkGeneratorResult complex type.
+ * 
+ * <p>The following schema fragment specifies the expected content contained within this class.
+ * 
+ * <pre>
+ * &lt;complexType name="BulkGeneratorResult">
+ *   &lt;complexContent>
+ *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
+ *       &lt;sequence>
+ *         &lt;element name="index" type="{http://www.w3.org/2001/XMLSchema}int"/>
+ *         &lt;element ref="{urn:com.flexnet.external.type}GeneratorResponse" minOccurs="0"/>
+ *         &lt;element name="status" type="{urn:com.flexnet.external.type}Status"/>
+ *       &lt;/sequence>
+ *     &lt;/restriction>
+ *   &lt;/complexContent>
+ * &lt;/complexType>
+ * </pre>
+ * 
+ * 
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "BulkGeneratorResult", propOrder = {
+    "index",
+    "generatorResponse",
+    "status"
+})
+public class BulkGeneratorResult {
+
+    protected int index;
+    @XmlElement(name = "GeneratorResponse")
+    protected GeneratorResponse generatorResponse;
+    @XmlElement(required = true, nillable = true)
+    protected Status status;
+
+    /**
+     * Gets the value of the index property.
+     * 
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the value of the index property.
+     * 
+     */
+    public void setIndex(int value) {
+        this.index = value;
+    }
+
+    /**
+     * Gets the value of the generatorResponse property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link GeneratorResponse }
+     *     
+     */
+    public GeneratorResponse getGeneratorResponse() {
+        return generatorResponse;
+    }
+
+    /**
+     * Sets the value of the generatorResponse property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link GeneratorResponse }
+     *     
+     */
+    public void setGeneratorResponse(GeneratorResponse value) {
+        this.generatorResponse = value;
+    }
+
+    /**
+     * Gets the value of the status property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Status }
+     *     
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the value of the status property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Status }
+     *     
+     */
+    public void setStatus(Status value) {
+        this.status = value;
+    }
+
+}
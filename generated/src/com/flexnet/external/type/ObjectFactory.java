@@ -89,6 +89,30 @@ public class ObjectFactory {
         return new GeneratorResponse();
     }
 
+    /**
+     * Create an instance of {@link BulkGeneratorRequest }
+     * 
+     */
+    public BulkGeneratorRequest createBulkGeneratorRequest() {
+        return new BulkGeneratorRequest();
+    }
+
+    /**
+     * Create an instance of {@link BulkGeneratorResponse }
+     * 
+     */
+    public BulkGeneratorResponse createBulkGeneratorResponse() {
+        return new BulkGeneratorResponse();
+    }
+
+    /**
+     * Create an instance of {@link BulkGeneratorResult }
+     * 
+     */
+    public BulkGeneratorResult createBulkGeneratorResult() {
+        return new BulkGeneratorResult();
+    }
+
     /**
      * Create an instance of {@link LicenseFileMapItem }
      * 
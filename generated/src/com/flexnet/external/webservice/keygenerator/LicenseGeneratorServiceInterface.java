@@ -7,6 +7,8 @@ import javax.jws.WebResult;
 import javax.jws.WebService;
 import javax.jws.soap.SOAPBinding;
 import javax.xml.bind.annotation.XmlSeeAlso;
+import com.flexnet.external.type.BulkGeneratorRequest;
+import com.flexnet.external.type.BulkGeneratorResponse;
 import com.flexnet.external.type.ConsolidatedLicense;
 import com.flexnet.external.type.ConsolidatedLicenseResquest;
 import com.flexnet.external.type.FulfillmentRecordSet;
@@ -96,6 +98,21 @@ public interface LicenseGeneratorServiceInterface {
         throws LicGeneratorException
     ;
 
+    /**
+     * 
+     * @param requests
+     * @return
+     *     returns com.flexnet.external.type.BulkGeneratorResponse
+     * @throws LicGeneratorException
+     */
+    @WebMethod(action = "generateLicenses")
+    @WebResult(name = "BulkGeneratorResponse", targetNamespace = "urn:com.flexnet.external.type", partName = "generatedLicenses")
+    public BulkGeneratorResponse generateLicenses(
+        @WebParam(name = "BulkGeneratorRequest", targetNamespace = "urn:com.flexnet.external.type", partName = "requests")
+        BulkGeneratorRequest requests)
+        throws LicGeneratorException
+    ;
+
     /**
      * 
      * @param fulfillmentRecordset
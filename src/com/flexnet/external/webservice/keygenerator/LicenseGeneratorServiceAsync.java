@@ -0,0 +1,182 @@
+package com.flexnet.external.webservice.keygenerator;
+
+import com.flexnet.external.type.ObjectFactory;
+import com.flexnet.external.type.SvcException;
+import com.revenera.gcs.ServiceExecutor;
+import com.revenera.gcs.utils.Log;
+import com.sun.xml.ws.api.server.AsyncProvider;
+import com.sun.xml.ws.api.server.AsyncProviderCallback;
+
+import javax.jws.WebParam;
+import javax.jws.WebResult;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.JAXBIntrospector;
+import javax.xml.namespace.QName;
+import javax.xml.soap.Detail;
+import javax.xml.soap.SOAPConstants;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPFactory;
+import javax.xml.soap.SOAPFault;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.ws.Service;
+import javax.xml.ws.ServiceMode;
+import javax.xml.ws.WebFault;
+import javax.xml.ws.WebServiceContext;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.WebServiceProvider;
+import javax.xml.ws.soap.SOAPFaultException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The operations of {@link LicenseGeneratorServiceImpl} on the same WSDL, answered asynchronously: the container
+ * thread hands the request payload to the {@link ServiceExecutor} and is released, the response is sent from
+ * the executor thread once the implementor is done. A request waiting on a signer then holds an executor thread,
+ * or a virtual thread, rather than a container thread.
+ *
+ * A request is routed by its payload element, the one declared for the operation on
+ * LicenseGeneratorServiceInterface, and the answer is the operation's result element, or its
+ * licGeneratorException fault. Registered in sun-jaxws.xml next to the synchronous endpoint, the servlet has
+ * to support async for the container thread to be released.
+ */
+@WebServiceProvider(serviceName = "LicenseGeneratorService",
+                    portName = "LicenseGeneratorServicePort",
+                    targetNamespace = "urn:keygenerator.webservice.external.flexnet.com",
+                    wsdlLocation = "WEB-INF/wsdl/schema/LicenseGeneratorService.wsdl")
+@ServiceMode(Service.Mode.PAYLOAD)
+public class LicenseGeneratorServiceAsync implements AsyncProvider<Source> {
+
+  private static final Log logger = Log.create(LicenseGeneratorServiceAsync.class);
+
+  private static final JAXBContext context;
+  private static final JAXBIntrospector introspector;
+
+  static {
+    try {
+      context = JAXBContext.newInstance(ObjectFactory.class);
+      introspector = context.createJAXBIntrospector();
+    }
+    catch (final JAXBException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static final class Operation {
+    final Method method;
+    final QName result;
+
+    Operation(final Method operation, final QName resultElement) {
+      this.method = operation;
+      this.result = resultElement;
+    }
+  }
+
+  /** the operations of the interface by request payload element */
+  private static final Map<QName, Operation> operations = Collections.unmodifiableMap(new HashMap<QName, Operation>() {
+    {
+      for (final Method method : LicenseGeneratorServiceInterface.class.getMethods()) {
+        final WebResult result = method.getAnnotation(WebResult.class);
+        final WebParam param = method.getParameterCount() == 1
+                ? (WebParam) method.getParameterAnnotations()[0][0]
+                : null;
+
+        if (result != null && param != null) {
+          put(new QName(param.targetNamespace(), param.name()),
+              new Operation(method, new QName(result.targetNamespace(), result.name())));
+        }
+      }
+    }
+  });
+
+  private static final QName fault_detail = new QName(LicGeneratorException.class.getAnnotation(WebFault.class).targetNamespace(),
+                                                      LicGeneratorException.class.getAnnotation(WebFault.class).name());
+
+  private static final QName server_fault = new QName(SOAPConstants.URI_NS_SOAP_1_1_ENVELOPE, "Server");
+
+  private final LicenseGeneratorServiceImpl service = new LicenseGeneratorServiceImpl();
+
+  @Override
+  public void invoke(final Source request, final AsyncProviderCallback<Source> callback, final WebServiceContext webServiceContext) {
+    if (!ServiceExecutor.instance().execute(() -> respond(request, callback))) {
+      callback.sendError(new WebServiceException("service busy, " + ServiceExecutor.instance().getRunning() + " requests in flight"));
+    }
+  }
+
+  private void respond(final Source request, final AsyncProviderCallback<Source> callback) {
+    final Source response;
+    try {
+      response = call(request);
+    }
+    catch (final Throwable t) {
+      callback.sendError(t instanceof WebServiceException ? (WebServiceException) t : new WebServiceException(t.getMessage(), t));
+      return;
+    }
+    callback.send(response);
+  }
+
+  /**
+   * @return the result element of the operation the request payload is for
+   */
+  Source call(final Source request) throws JAXBException {
+    final Object payload = context.createUnmarshaller().unmarshal(request);
+
+    final Operation operation = operations.get(introspector.getElementName(payload));
+    if (operation == null) {
+      throw new WebServiceException("no operation for " + introspector.getElementName(payload));
+    }
+
+    final Object result;
+    try {
+      result = operation.method.invoke(this.service, JAXBIntrospector.getValue(payload));
+    }
+    catch (final InvocationTargetException e) {
+      throw fault(e.getCause());
+    }
+    catch (final IllegalAccessException e) {
+      throw new WebServiceException(e);
+    }
+
+    return marshal(element(operation.result, operation.method.getReturnType(), result));
+  }
+
+  private static <T> JAXBElement<T> element(final QName name, final Class<T> type, final Object value) {
+    return new JAXBElement<>(name, type, type.cast(value));
+  }
+
+  private static Source marshal(final JAXBElement<?> element) throws JAXBException {
+    final DOMResult result = new DOMResult();
+    context.createMarshaller().marshal(element, result);
+    return new DOMSource(result.getNode());
+  }
+
+  /**
+   * @return the fault the synchronous endpoint answers with, the fault info of a LicGeneratorException as detail
+   */
+  private static WebServiceException fault(final Throwable failure) {
+    if (!(failure instanceof LicGeneratorException)) {
+      return new WebServiceException(failure.getMessage(), failure);
+    }
+
+    try {
+      final SOAPFault fault = SOAPFactory.newInstance(SOAPConstants.SOAP_1_1_PROTOCOL)
+                                         .createFault(String.valueOf(failure.getMessage()), server_fault);
+      final SvcException info = ((LicGeneratorException) failure).getFaultInfo();
+      if (info != null) {
+        final Detail detail = fault.addDetail();
+        context.createMarshaller().marshal(new JAXBElement<>(fault_detail, SvcException.class, info), detail);
+      }
+      return new SOAPFaultException(fault);
+    }
+    catch (final SOAPException | JAXBException e) {
+      logger.exception(e);
+      return new WebServiceException(failure.getMessage(), failure);
+    }
+  }
+}
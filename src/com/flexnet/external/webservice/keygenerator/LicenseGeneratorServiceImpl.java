@@ -3,7 +3,10 @@ package com.flexnet.external.webservice.keygenerator;
 import com.flexnet.external.type.*;
 import com.revenera.gcs.Application;
 import com.revenera.gcs.ServiceBase;
-import com.revenera.gcs.utils.Diagnostics.Token;
+import com.revenera.gcs.ServiceOperation;
+import com.revenera.gcs.implementor.BulkGeneration;
+import com.revenera.gcs.transaction.Transaction;
+import com.revenera.gcs.utils.Diagnostics;
 import com.revenera.gcs.utils.Log;
 
 import javax.jws.WebService;
@@ -20,15 +23,18 @@ public class LicenseGeneratorServiceImpl extends ServiceBase implements LicenseG
 
     super.logger.yaml(Log.Level.trace, payload);
 
-    final Token token = createDiagnosticsToken();
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.ping);
+    final Transaction transaction = startTransaction(ServiceOperation.ping, payload);
     try {
-      return Application.getInstance().getImplementorFactory().getImplementor(payload.getStr()).ping(payload);
+      return commit(transaction, Application.getInstance().getImplementorFactory().getImplementor(payload.getStr()).ping(payload));
     }
     catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
       throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
     }
     finally {
-      token.commit();
+      timer.close();
     }
   }
 
@@ -36,17 +42,21 @@ public class LicenseGeneratorServiceImpl extends ServiceBase implements LicenseG
   public Status validateProduct(final ProductRequest payload) throws LicGeneratorException {
     super.logger.in();
     //super.logger.yaml(Log.Level.trace, payload);
-    final Token token = createDiagnosticsToken();
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.validateProduct);
+    final Transaction transaction = startTransaction(ServiceOperation.validateProduct, payload);
     try {
       final String tech = super.getLicenseTechnology(payload);
+      attribute(timer, transaction, tech);
 
-      return Application.getInstance().getImplementorFactory().getImplementor(tech).validateProduct(payload);
+      return commit(transaction, Application.getInstance().getImplementorFactory().getImplementor(tech).validateProduct(payload));
     }
     catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
       throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
     }
     finally {
-      token.commit();
+      timer.close();
     }
   }
 
@@ -54,17 +64,21 @@ public class LicenseGeneratorServiceImpl extends ServiceBase implements LicenseG
   public Status validateLicenseModel(final LicenseModelRequest payload) throws LicGeneratorException {
     super.logger.in();
     //super.logger.yaml(Log.Level.trace, payload);
-    final Token token = createDiagnosticsToken();
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.validateLicenseModel);
+    final Transaction transaction = startTransaction(ServiceOperation.validateLicenseModel, payload);
     try {
       final String tech = super.getLicenseTechnology(payload);
+      attribute(timer, transaction, tech);
 
-      return Application.getInstance().getImplementorFactory().getImplementor(tech).validateLicenseModel(payload);
+      return commit(transaction, Application.getInstance().getImplementorFactory().getImplementor(tech).validateLicenseModel(payload));
     }
     catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
       throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
     }
     finally {
-      token.commit();
+      timer.close();
     }
   }
 
@@ -72,18 +86,42 @@ public class LicenseGeneratorServiceImpl extends ServiceBase implements LicenseG
   public GeneratorResponse generateLicense(final GeneratorRequest payload) throws LicGeneratorException {
     super.logger.in();
     //super.logger.yaml(Log.Level.trace, payload);
-    final Token token = createDiagnosticsToken();
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.generateLicense);
+    final Transaction transaction = startTransaction(ServiceOperation.generateLicense, payload);
 
     try {
       final String tech = super.getLicenseTechnology(payload);
+      attribute(timer, transaction, tech);
 
-      return Application.getInstance().getImplementorFactory().getImplementor(tech).generateLicense(payload);
+      return commit(transaction, Application.getInstance().getImplementorFactory().getImplementor(tech).generateLicense(payload));
     }
     catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
       throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
     }
     finally {
-      token.commit();
+      timer.close();
+    }
+  }
+
+  @Override
+  public BulkGeneratorResponse generateLicenses(final BulkGeneratorRequest payload) throws LicGeneratorException {
+    super.logger.in();
+    //super.logger.yaml(Log.Level.trace, payload);
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.generateLicenses);
+    final Transaction transaction = startTransaction(ServiceOperation.generateLicenses, payload);
+
+    try {
+      return commit(transaction, BulkGeneration.generate(payload.getRequests(), super::getLicenseTechnology));
+    }
+    catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
+      throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
+    }
+    finally {
+      timer.close();
     }
   }
 
@@ -91,17 +129,21 @@ public class LicenseGeneratorServiceImpl extends ServiceBase implements LicenseG
   public ConsolidatedLicense consolidateFulfillments(final FulfillmentRecordSet payload) throws LicGeneratorException {
     super.logger.in();
     //super.logger.yaml(Log.Level.trace, payload);
-    final Token token = createDiagnosticsToken();
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.consolidateFulfillments);
+    final Transaction transaction = startTransaction(ServiceOperation.consolidateFulfillments, payload);
     try {
       final String tech = super.getLicenseTechnology(payload);
+      attribute(timer, transaction, tech);
 
-      return Application.getInstance().getImplementorFactory().getImplementor(tech).consolidateFulfillments(payload);
+      return commit(transaction, Application.getInstance().getImplementorFactory().getImplementor(tech).consolidateFulfillments(payload));
     }
     catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
       throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
     }
     finally {
-      token.commit();
+      timer.close();
     }
   }
 
@@ -109,18 +151,22 @@ public class LicenseGeneratorServiceImpl extends ServiceBase implements LicenseG
   public LicenseFileDefinitionMap generateLicenseFilenames(final GeneratorRequest payload) throws LicGeneratorException {
     super.logger.in();
     //super.logger.yaml(Log.Level.trace, payload);
-    final Token token = createDiagnosticsToken();
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.generateLicenseFilenames);
+    final Transaction transaction = startTransaction(ServiceOperation.generateLicenseFilenames, payload);
 
     try {
       final String tech = super.getLicenseTechnology(payload);
+      attribute(timer, transaction, tech);
 
-      return Application.getInstance().getImplementorFactory().getImplementor(tech).generateLicenseFilenames(payload);
+      return commit(transaction, Application.getInstance().getImplementorFactory().getImplementor(tech).generateLicenseFilenames(payload));
     }
     catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
       throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
     }
     finally {
-      token.commit();
+      timer.close();
     }
   }
 
@@ -130,18 +176,22 @@ public class LicenseGeneratorServiceImpl extends ServiceBase implements LicenseG
       throws LicGeneratorException {
     super.logger.in();
     //super.logger.yaml(Log.Level.trace, payload);
-    final Token token = createDiagnosticsToken();
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.generateConsolidatedLicenseFilenames);
+    final Transaction transaction = startTransaction(ServiceOperation.generateConsolidatedLicenseFilenames, payload);
 
     try {
       final String tech = super.getLicenseTechnology(payload);
+      attribute(timer, transaction, tech);
 
-      return Application.getInstance().getImplementorFactory().getImplementor(tech).generateConsolidatedLicenseFilenames(payload);
+      return commit(transaction, Application.getInstance().getImplementorFactory().getImplementor(tech).generateConsolidatedLicenseFilenames(payload));
     }
     catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
       throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
     }
     finally {
-      token.commit();
+      timer.close();
     }
   }
 
@@ -149,16 +199,19 @@ public class LicenseGeneratorServiceImpl extends ServiceBase implements LicenseG
   public String generateCustomHostIdentifier(final HostIdRequest payload) throws LicGeneratorException {
     super.logger.in();
     //super.logger.yaml(Log.Level.trace, payload);
-    final Token token = createDiagnosticsToken();
+    final Diagnostics.Timer timer = startTimer(ServiceOperation.generateCustomHostIdentifier);
+    final Transaction transaction = startTransaction(ServiceOperation.generateCustomHostIdentifier, payload);
 
     try {
-      return Application.getInstance().getImplementorFactory().getDefaultImplementor().generateCustomHostIdentifier(payload);
+      return commit(transaction, Application.getInstance().getImplementorFactory().getDefaultImplementor().generateCustomHostIdentifier(payload));
     }
     catch (final Throwable t) {
+      timer.fail();
+      rollback(transaction, t);
       throw new LicGeneratorException(t.getMessage(), this.serviceException.apply(t));
     }
     finally {
-      token.commit();
+      timer.close();
     }
   }
 }
@@ -1,19 +1,34 @@
 package com.revenera.gcs;
 
+import com.flexnet.external.webservice.keygenerator.LicenseGeneratorServiceImpl;
 import com.revenera.gcs.implementor.AbstractImplementor;
+import com.revenera.gcs.implementor.BulkGeneration;
+import com.revenera.gcs.implementor.Consolidation;
 import com.revenera.gcs.implementor.ImplementorFactory;
+import com.revenera.gcs.signer.SignerExecutor;
+import com.revenera.gcs.signer.SignerPool;
+import com.revenera.gcs.transaction.TransactionRecorder;
 import com.revenera.gcs.utils.AnnotationManager;
 import com.revenera.gcs.utils.Diagnostics;
+import com.revenera.gcs.utils.DiagnosticsMBean;
 import com.revenera.gcs.utils.GeneratorImplementor;
 import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.LogAppender;
+import com.revenera.gcs.utils.LogLevels;
+import com.revenera.gcs.utils.Settings;
 
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import javax.servlet.annotation.WebListener;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -58,7 +73,13 @@ public class Application implements ServletContextListener {
     return implementorFactory;
   }
 
-  /** diagnostics */
+  /** true once the implementors are loaded and warmed up, see {@link StartupWarmup} */
+  private volatile boolean ready;
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** diagnostics, service endpoints are registered up front */
   private final Diagnostics diagnostics = new Diagnostics();
   public Diagnostics getDiagnostics() {
     return diagnostics;
@@ -72,14 +93,21 @@ public class Application implements ServletContextListener {
   }
 
   public Application() {
-    /// we can reduce this potentially -- once levels have been assessed
-    Log.setLoggingLevel(Log.Level.trace);
-
     logger.me(this);
 
     this.buildSequence = "1065";
     this.buildDate = "2025.02.22";
 
+    this.diagnostics.register(LicenseGeneratorServiceImpl.class, ServiceOperation.values());
+
+    this.diagnostics.gauge("log_lines_appended", () -> LogAppender.instance().getAppended());
+    this.diagnostics.gauge("log_lines_dropped", () -> LogAppender.instance().getDropped());
+    this.diagnostics.gauge("log_lines_pending", () -> LogAppender.instance().getPending());
+    this.diagnostics.gauge("transactions_recorded", () -> TransactionRecorder.instance().getRecorded());
+    this.diagnostics.gauge("transactions_dropped", () -> TransactionRecorder.instance().getDropped());
+    this.diagnostics.gauge("transactions_pending", () -> TransactionRecorder.instance().getPending());
+    this.diagnostics.gauge("ready", () -> this.ready ? 1 : 0);
+
     singleton.getAndSet(this);
 
     logger.log(Log.Level.info, getVersion());
@@ -90,38 +118,134 @@ public class Application implements ServletContextListener {
     return Paths.get(this.web_inf, parts);
   }
 
-  @Override
-  public void contextInitialized(final ServletContextEvent event) {
-    logger.in();
+  /**
+   * set up logging levels, diagnostics and the implementors
+   *
+   * @param webInf WEB-INF directory holding the resources, the servlet context or a local tree for offline tools
+   */
+  public void initialize(final String webInf) throws Exception {
+    this.web_inf = webInf;
+
+    logger.array(Log.Level.info, "resources", getResourcePath());
+
+    LogLevels.watch(getResourcePath("logging.properties"), Math.max(1, Settings.getLong("revenera.log.levels.poll.seconds", 10)));
+    LogLevels.register();
+    DiagnosticsMBean.register(this.diagnostics);
+
+    final long started = System.nanoTime();
 
     try {
-      logAttributeNames(event);
+      final List<AbstractImplementor> indexed = Settings.getBoolean("revenera.implementor.index", true)
+              ? indexedImplementors()
+              : Collections.emptyList();
 
-      this.web_inf = event.getServletContext().getRealPath("/WEB-INF");
+      if (!indexed.isEmpty()) {
+        indexed.forEach(implementorFactory::addImplementor);
+      }
+      else {
+        scanImplementors();
+      }
+    }
+    finally {
+      // route to whatever was found, even when the scan failed part way
+      implementorFactory.freeze();
+
+      logger.array(Log.Level.info, "implementors loaded", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + "ms");
+    }
+  }
+
+  /**
+   * @return the implementors listed in the index the build writes (see ImplementorIndexProcessor), none
+   * when there is no index or it cannot be loaded
+   */
+  private static List<AbstractImplementor> indexedImplementors() {
+    final List<AbstractImplementor> implementors = new ArrayList<>();
+    try {
+      for (final AbstractImplementor implementor : ServiceLoader.load(AbstractImplementor.class, Thread.currentThread().getContextClassLoader())) {
+        implementors.add(implementor);
+      }
+      logger.array(Log.Level.info, "implementor index", implementors.size());
+    }
+    catch (final ServiceConfigurationError e) {
+      logger.exception(e);
+      implementors.clear();
+    }
+    return implementors;
+  }
 
-      logger.array(Log.Level.info, "resources", getResourcePath());;
+  /**
+   * find the implementors by loading every class of the implementor package, when there is no index
+   */
+  private void scanImplementors() throws Exception {
+    logger.log(Log.Level.info, "no implementor index, scanning the implementor package");
 
-      final AnnotationManager manager = new AnnotationManager();
+    final AnnotationManager manager = new AnnotationManager();
 
-      final List<String> files = manager.findClassFilesInPackage(AbstractImplementor.class);
+    final List<String> files = manager.findClassFilesInPackage(AbstractImplementor.class);
 
-      for (final String typename : files) {
+    for (final String typename : files) {
 
-        final Class<?> type = Class.forName(typename);
+      final Class<?> type = Class.forName(typename);
 
-        if (type.isAnnotationPresent(GeneratorImplementor.class)) {
+      if (type.isAnnotationPresent(GeneratorImplementor.class)) {
 
-          final GeneratorImplementor ann = type.getAnnotation(GeneratorImplementor.class);
+        final GeneratorImplementor ann = type.getAnnotation(GeneratorImplementor.class);
 
-          logger.array(Log.Level.debug, ann.technology(), type.getName());
+        logger.array(Log.Level.debug, ann.technology(), type.getName());
 
-          if (AbstractImplementor.class.isAssignableFrom(type)) {
+        if (AbstractImplementor.class.isAssignableFrom(type)) {
 
-            implementorFactory.addImplementor((AbstractImplementor) type.newInstance());
-          }
+          implementorFactory.addImplementor((AbstractImplementor) type.newInstance());
         }
       }
     }
+  }
+
+  /**
+   * put synthetic requests through the implementors, on a thread of its own unless -Drevenera.warmup.background=false,
+   * and report ready once done
+   */
+  public void warmUp() throws Exception {
+    if (StartupWarmup.rounds <= 0) {
+      this.ready = true;
+      return;
+    }
+
+    final StartupWarmup warmup = new StartupWarmup(this);
+    final Runnable run = () -> {
+      try {
+        warmup.run();
+      }
+      catch (final Throwable t) {
+        logger.exception(t);
+      }
+      finally {
+        this.ready = true;
+        logger.log(Log.Level.info, "ready");
+      }
+    };
+
+    if (StartupWarmup.background) {
+      final Thread thread = new Thread(run, "revenera-warmup");
+      thread.setDaemon(true);
+      thread.start();
+    }
+    else {
+      run.run();
+    }
+  }
+
+  @Override
+  public void contextInitialized(final ServletContextEvent event) {
+    logger.in();
+
+    try {
+      logAttributeNames(event);
+
+      initialize(event.getServletContext().getRealPath("/WEB-INF"));
+
+      warmUp();
+    }
     catch (final Throwable t) {
       logger.exception(t);
     }
@@ -130,6 +254,21 @@ public class Application implements ServletContextListener {
     }
   }
 
+  /**
+   * flush and stop the background writers and pools
+   */
+  public void shutdown() {
+    ServiceExecutor.shutdown();
+    BulkGeneration.shutdown();
+    Consolidation.shutdown();
+    SignerExecutor.shutdown();
+    SignerPool.shutdown();
+    TransactionRecorder.instance().close();
+    DiagnosticsMBean.unregister();
+    LogLevels.stop();
+    Log.shutdown();
+  }
+
   @Override
   public void contextDestroyed(final ServletContextEvent event) {
     logger.in();
@@ -141,6 +280,8 @@ public class Application implements ServletContextListener {
     }
     finally {
       logger.out();
+
+      shutdown();
     }
   }
 }
@@ -0,0 +1,28 @@
+package com.revenera.gcs;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Readiness for load balancers, 200 once the application is initialized and warmed up, 503 until then
+ */
+public class HealthServlet extends HttpServlet {
+  private static final long serialVersionUID = 1L;
+
+  @Override
+  protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+    final Application application = Application.getInstance();
+
+    final boolean ready = application != null && application.isReady();
+    final byte[] body = (ready ? "ready\n" : application == null ? "not initialized\n" : "warming up\n").getBytes(StandardCharsets.UTF_8);
+
+    response.setStatus(ready ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    response.setHeader("Cache-Control", "no-store");
+    response.setContentType("text/plain; charset=utf-8");
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+}
@@ -0,0 +1,47 @@
+package com.revenera.gcs;
+
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Metrics;
+import com.revenera.gcs.utils.Utils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the diagnostics registry in Prometheus text format, or as json with ?format=json
+ */
+public class MetricsServlet extends HttpServlet {
+  private static final long serialVersionUID = 1L;
+
+  private static final Log logger = Log.create(MetricsServlet.class);
+
+  @Override
+  protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+    final Application application = Application.getInstance();
+
+    if (application == null) {
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "application not initialized");
+      return;
+    }
+
+    try {
+      final boolean json = "json".equalsIgnoreCase(request.getParameter("format"));
+
+      final byte[] body = (json
+              ? Utils.safeSerializeJsonIndented(application.getDiagnostics().serialize())
+              : Metrics.prometheus(application.getDiagnostics())).getBytes(StandardCharsets.UTF_8);
+
+      response.setStatus(HttpServletResponse.SC_OK);
+      response.setContentType(json ? "application/json; charset=utf-8" : Metrics.content_type);
+      response.setContentLength(body.length);
+      response.getOutputStream().write(body);
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+      response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, t.getMessage());
+    }
+  }
+}
@@ -1,11 +1,16 @@
 package com.revenera.gcs;
 
 import com.flexnet.external.type.*;
-import com.revenera.gcs.utils.Diagnostics.Token;
+import com.revenera.gcs.transaction.Transaction;
+import com.revenera.gcs.transaction.TransactionRecorder;
+import com.revenera.gcs.utils.Diagnostics;
 import com.revenera.gcs.utils.Log;
 import com.revenera.gcs.utils.Utils;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 
@@ -17,61 +22,123 @@ public abstract class ServiceBase {
     this.logger.in();
   }
 
+  /** license technology of each request payload type, those holding records take the first record's */
+  private static final Map<Class<?>, Function<Object, LicenseTechnology>> technologies = Collections.unmodifiableMap(new HashMap<Class<?>, Function<Object, LicenseTechnology>>() {
+    {
+      put(ProductRequest.class, obj -> ((ProductRequest) obj).getLicenseTechnology());
+      put(LicenseModelRequest.class, obj -> ((LicenseModelRequest) obj).getLicenseTechnology());
+      put(GeneratorRequest.class, obj -> ((GeneratorRequest) obj).getLicenseTechnology());
+      put(ConsolidatedLicenseResquest.class, obj -> first(((ConsolidatedLicenseResquest) obj).getFulfillments(), FulfillmentRecord::getLicenseTechnology));
+      put(FulfillmentRecordSet.class, obj -> first(((FulfillmentRecordSet) obj).getFulfillments(), FulfillmentRecord::getLicenseTechnology));
+      put(RenewableEntitlementLineItems.class, obj -> first(((RenewableEntitlementLineItems) obj).getRenewableEntitlementLineItems(), RenewableEntitlementLineItem::getLicenseTechnology));
+      put(EntitlementLineItem.class, obj -> ((EntitlementLineItem) obj).getLicenseTechnology());
+      put(FulfillmentRecord.class, obj -> ((FulfillmentRecord) obj).getLicenseTechnology());
+      put(ConsolidatedLicenseRecord.class, obj -> ((ConsolidatedLicenseRecord) obj).getLicenseTechnology());
+    }
+  });
+
+  /** the extractor of each class met, its own or that of the payload type it extends, resolved once */
+  private static final ClassValue<Function<Object, LicenseTechnology>> extractors = new ClassValue<Function<Object, LicenseTechnology>>() {
+    @Override
+    protected Function<Object, LicenseTechnology> computeValue(final Class<?> type) {
+      return technologies.entrySet().stream()
+                         .filter(entry -> entry.getKey().isAssignableFrom(type))
+                         .map(Map.Entry::getValue)
+                         .findFirst()
+                         .orElse(null);
+    }
+  };
+
+  private static <T> LicenseTechnology first(final List<T> records, final Function<T, LicenseTechnology> technology) {
+    return records == null || records.isEmpty() ? null : technology.apply(records.get(0));
+  }
+
   /**
    *
    * @param obj request payload from which to assess the FNO license technology name
    * @return FNO license technology name
    */
   protected String getLicenseTechnology(final Object obj) {
-    final AtomicReference<LicenseTechnology> tech = new AtomicReference<>();
+    final Function<Object, LicenseTechnology> extractor = extractors.get(obj.getClass());
 
-    if (obj instanceof ProductRequest) {
-      tech.set(((ProductRequest) obj).getLicenseTechnology());
-    }
-    else if (obj instanceof LicenseModelRequest) {
-      tech.set(((LicenseModelRequest) obj).getLicenseTechnology());
-    }
-    else if (obj instanceof GeneratorRequest) {
-      tech.set(((GeneratorRequest) obj).getLicenseTechnology());
-    }
-    else if (obj instanceof ConsolidatedLicenseResquest) {
-      ((ConsolidatedLicenseResquest) obj).getFulfillments().stream().findFirst().ifPresent(x -> {
-        tech.set(x.getLicenseTechnology());
-      });
-    }
-    else if (obj instanceof FulfillmentRecordSet) {
-      ((FulfillmentRecordSet) obj).getFulfillments().stream().findFirst().ifPresent(x -> {
-        tech.set(x.getLicenseTechnology());
-      });
-    }
-    else if (obj instanceof RenewableEntitlementLineItems) {
-      ((RenewableEntitlementLineItems) obj).getRenewableEntitlementLineItems().stream().findFirst().ifPresent(x -> {
-        tech.set(x.getLicenseTechnology());
-      });
-    }
-    else if (obj instanceof EntitlementLineItem) {
-      tech.set(((EntitlementLineItem) obj).getLicenseTechnology());
+    final LicenseTechnology tech = extractor == null ? null : extractor.apply(obj);
+
+    if (tech == null) {
+      throw new RuntimeException(obj.getClass().getName() + " | cannot retrieve license technology");
     }
-    else if (obj instanceof FulfillmentRecord) {
-      tech.set(((FulfillmentRecord) obj).getLicenseTechnology());
+    return tech.getName();
+  }
+
+  private static final ServiceOperation[] operations = ServiceOperation.values();
+
+  /** diagnostics handles indexed by operation ordinal, resolved on first use */
+  private volatile Diagnostics.Element[] diagnostics;
+
+  protected Diagnostics.Timer startTimer(final ServiceOperation operation) {
+    Diagnostics.Element[] elements = this.diagnostics;
+
+    if (elements == null) {
+      elements = Application.getInstance().getDiagnostics().register(this.getClass(), operations);
+      this.diagnostics = elements;
     }
-    else if (obj instanceof ConsolidatedLicenseRecord) {
-      tech.set(((ConsolidatedLicenseRecord) obj).getLicenseTechnology());
+
+    return elements[operation.ordinal()].start();
+  }
+
+  /**
+   * record the timed call (and transaction) against the license technology as well
+   */
+  protected void attribute(final Diagnostics.Timer timer, final Transaction transaction, final String technology) {
+    timer.attribute(Application.getInstance().getDiagnostics().technology(technology, operations));
+
+    if (transaction != null) {
+      transaction.setTechnology(technology);
     }
+  }
 
-    if (tech.get() == null) {
-      throw new RuntimeException(obj.getClass().getName() + " | cannot retrieve license technology");
+  /**
+   * @return transaction holding the request, or null when transactions are not being recorded
+   */
+  protected Transaction startTransaction(final ServiceOperation operation, final Object payload) {
+    if (!TransactionRecorder.instance().isEnabled()) {
+      return null;
     }
-    else {
-      this.logger.log(Log.Level.info, "license tech:" + tech.get().getName());
-      return tech.get().getName();
+
+    final Transaction transaction = Transaction.create(operation.name());
+    transaction.createElement().addRequest(payload);
+    return transaction;
+  }
+
+  /**
+   * hand the completed transaction to the recorder
+   *
+   * @return the response, unchanged
+   */
+  protected <T> T commit(final Transaction transaction, final T response) {
+    if (transaction != null) {
+      try {
+        if (response != null) {
+          transaction.lastElement().addResponse(response);
+          transaction.addResponse(response);
+        }
+        transaction.commit();
+      }
+      catch (final Throwable t) {
+        this.logger.exception(t);
+      }
     }
+    return response;
   }
 
-  protected Token createDiagnosticsToken() {
-    final StackTraceElement frame = Thread.currentThread().getStackTrace()[2];
-    
-    return Application.getInstance().getDiagnostics().getToken(this.getClass(), frame.getMethodName());
+  protected void rollback(final Transaction transaction, final Throwable failure) {
+    if (transaction != null) {
+      try {
+        transaction.addFailure(failure).commit();
+      }
+      catch (final Throwable t) {
+        this.logger.exception(t);
+      }
+    }
   }
   
   public Function<Throwable, SvcException> serviceException = (throwable) -> new SvcException() {
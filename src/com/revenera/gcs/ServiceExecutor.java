@@ -0,0 +1,177 @@
+package com.revenera.gcs;
+
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the requests of the asynchronous endpoint, so that a request waiting on its implementor (a signer most
+ * of the time) holds one of these threads rather than a thread of the container.
+ *
+ * Platform threads are a fixed pool with a bounded queue. Virtual threads, on a JDK that has them, are one
+ * per request. Either way at most the in-flight limit of requests are accepted at once, more are rejected
+ * straight away rather than queued, the caller answers them with a fault.
+ *
+ * settings (system properties):
+ *   revenera.async.threads    platform threads (default 200)
+ *   revenera.async.queue      requests waiting for a platform thread (default 1000)
+ *   revenera.async.virtual    a virtual thread per request when the JDK has them (default false)
+ *   revenera.async.inflight   requests accepted at once (default threads + queue)
+ */
+public final class ServiceExecutor {
+
+  private static final Log logger = Log.create(ServiceExecutor.class);
+
+  private static ServiceExecutor instance;
+
+  /**
+   * @return the executor, started on first use
+   */
+  public static synchronized ServiceExecutor instance() {
+    if (instance == null) {
+      final int threads = Math.max(1, Settings.getInt("revenera.async.threads", 200));
+      final int queue = Math.max(1, Settings.getInt("revenera.async.queue", 1000));
+
+      instance = new ServiceExecutor(threads,
+                                     queue,
+                                     Settings.getBoolean("revenera.async.virtual", false),
+                                     Settings.getInt("revenera.async.inflight", threads + queue));
+    }
+    return instance;
+  }
+
+  /**
+   * stop the executor if it was started
+   */
+  public static synchronized void shutdown() {
+    if (instance != null) {
+      instance.close();
+      instance = null;
+    }
+  }
+
+  private final ExecutorService executor;
+  private final boolean virtual;
+  private final Semaphore inflight;
+
+  private final AtomicInteger running = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  ServiceExecutor(final int threads, final int queue, final boolean useVirtual, final int limit) {
+    final ExecutorService virtualThreads = useVirtual ? virtualThreads() : null;
+
+    if (virtualThreads != null) {
+      this.executor = virtualThreads;
+      this.virtual = true;
+    }
+    else {
+      final AtomicInteger count = new AtomicInteger();
+      this.executor = new ThreadPoolExecutor(threads,
+                                             threads,
+                                             0,
+                                             TimeUnit.MILLISECONDS,
+                                             new ArrayBlockingQueue<>(queue),
+                                             runnable -> {
+                                               final Thread thread = new Thread(runnable, "revenera-async-" + count.getAndIncrement());
+                                               thread.setDaemon(true);
+                                               return thread;
+                                             });
+      this.virtual = false;
+    }
+    this.inflight = new Semaphore(Math.max(1, limit));
+
+    final Application application = Application.getInstance();
+    if (application != null) {
+      application.getDiagnostics().gauge("async_inflight", this.running::get);
+      application.getDiagnostics().gauge("async_completed", this.completed::sum);
+      application.getDiagnostics().gauge("async_rejected", this.rejected::sum);
+      application.getDiagnostics().gauge("async_virtual", () -> this.virtual ? 1 : 0);
+    }
+
+    logger.array(Log.Level.info, "service executor", this.virtual ? "virtual" : threads, queue, limit);
+  }
+
+  /**
+   * @return a virtual thread per task executor, null on a JDK without virtual threads
+   */
+  private static ExecutorService virtualThreads() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+    catch (final ReflectiveOperationException | RuntimeException e) {
+      logger.log(Log.Level.warning, "no virtual threads on this JDK, using platform threads | " + e);
+      return null;
+    }
+  }
+
+  /**
+   * run the task unless as many requests as the in-flight limit are running already
+   *
+   * @return false when the task was rejected and will not run
+   */
+  public boolean execute(final Runnable task) {
+    if (!this.inflight.tryAcquire()) {
+      this.rejected.increment();
+      return false;
+    }
+
+    this.running.incrementAndGet();
+    try {
+      this.executor.execute(() -> {
+        try {
+          task.run();
+        }
+        finally {
+          this.running.decrementAndGet();
+          this.completed.increment();
+          this.inflight.release();
+        }
+      });
+      return true;
+    }
+    catch (final RejectedExecutionException e) {
+      this.running.decrementAndGet();
+      this.inflight.release();
+      this.rejected.increment();
+      return false;
+    }
+  }
+
+  public boolean isVirtual() {
+    return this.virtual;
+  }
+
+  public int getRunning() {
+    return this.running.get();
+  }
+
+  public long getRejected() {
+    return this.rejected.sum();
+  }
+
+  /**
+   * stop taking requests, those accepted are given 10 seconds to complete
+   */
+  void close() {
+    this.executor.shutdown();
+    try {
+      if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        this.executor.shutdownNow();
+      }
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.executor.shutdownNow();
+    }
+  }
+}
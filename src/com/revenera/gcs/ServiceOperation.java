@@ -0,0 +1,17 @@
+package com.revenera.gcs;
+
+/**
+ * Operations of LicenseGeneratorServiceInterface, used to address per-operation state (diagnostics) without
+ * looking up method names at runtime
+ */
+public enum ServiceOperation {
+  ping,
+  validateProduct,
+  validateLicenseModel,
+  generateLicense,
+  generateLicenses,
+  consolidateFulfillments,
+  generateLicenseFilenames,
+  generateConsolidatedLicenseFilenames,
+  generateCustomHostIdentifier
+}
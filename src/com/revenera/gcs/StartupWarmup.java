@@ -0,0 +1,222 @@
+package com.revenera.gcs;
+
+import com.flexnet.external.type.*;
+import com.flexnet.external.webservice.keygenerator.LicenseGeneratorServiceInterface;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Metrics;
+import com.revenera.gcs.utils.Settings;
+import com.revenera.gcs.utils.Utils;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Marshaller;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts synthetic requests through every implementor after startup, so that the first requests after a deploy do
+ * not pay for class loading, serializer construction and cold code.
+ *
+ * Each round pings an implementor, generates a license for a synthetic GeneratorRequest, consolidates the last
+ * licenses generated as a FulfillmentRecordSet, and serializes requests and responses with the Jackson mappers
+ * (logging, transactions) and JAXB (SOAP). The calls go straight to the implementors, they are not recorded as
+ * requests or transactions. An implementor that fails is logged and left, it does not hold readiness back.
+ *
+ * settings (system properties):
+ *   revenera.warmup.rounds       rounds per implementor, 0 skips the warm-up (default 20)
+ *   revenera.warmup.features     feature lines per synthetic request (default 16)
+ *   revenera.warmup.background   warm up on a thread of its own while the container takes requests (default true)
+ */
+public final class StartupWarmup {
+
+  private static final Log logger = Log.create(StartupWarmup.class);
+
+  public static final int rounds = Settings.getInt("revenera.warmup.rounds", 20);
+  public static final int features = Settings.getInt("revenera.warmup.features", 16);
+  public static final boolean background = Settings.getBoolean("revenera.warmup.background", true);
+
+  private static final String namespace = "urn:com.flexnet.external.type";
+
+  /** licenses consolidated per round, the most recent ones generated */
+  private static final int consolidated = 8;
+
+  private static final long seed = 20250222L;
+
+  private static final OutputStream discard = new OutputStream() {
+    @Override
+    public void write(final int b) {
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+    }
+  };
+
+  private final Application application;
+  private final DatatypeFactory datatypes;
+
+  private Marshaller marshaller;
+
+  private volatile long millis;
+
+  StartupWarmup(final Application app) throws Exception {
+    this.application = app;
+    this.datatypes = DatatypeFactory.newInstance();
+
+    app.getDiagnostics().gauge("warmup_millis", () -> this.millis);
+  }
+
+  /**
+   * @return implementors that failed
+   */
+  int run() {
+    final long started = System.nanoTime();
+    int failed = 0;
+
+    try {
+      this.marshaller = JAXBContext.newInstance(ObjectFactory.class).createMarshaller();
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+    }
+
+    for (final Map.Entry<String, LicenseGeneratorServiceInterface> entry : this.application.getImplementorFactory().getImplementors().entrySet()) {
+      final List<FulfillmentRecord> records = new ArrayList<>();
+
+      try {
+        for (int round = 0; round < rounds; round++) {
+          round(entry.getKey(), entry.getValue(), new Random(seed + round), records);
+        }
+      }
+      catch (final Throwable t) {
+        failed++;
+        logger.array(Log.Level.warning, "warm-up failed", entry.getKey(), t.getMessage());
+        logger.exception(t);
+      }
+    }
+
+    try {
+      Metrics.prometheus(this.application.getDiagnostics());
+      Utils.safeSerializeJsonIndented(this.application.getDiagnostics().serialize());
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+    }
+
+    this.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+    logger.array(Log.Level.info, "warm-up done", this.application.getImplementorFactory().getImplementors().keySet(), rounds, failed, this.millis + "ms");
+
+    return failed;
+  }
+
+  private void round(final String technology,
+                     final LicenseGeneratorServiceInterface implementor,
+                     final Random random,
+                     final List<FulfillmentRecord> records) throws Exception {
+    final PingRequest ping = new PingRequest();
+    ping.setStr(technology);
+    final PingResponse pong = implementor.ping(ping);
+
+    final GeneratorRequest request = request(technology, random);
+    final GeneratorResponse response = implementor.generateLicense(request);
+
+    final FulfillmentRecord record = new FulfillmentRecord();
+    record.setLicenseTechnology(request.getLicenseTechnology());
+    record.setLicenseFiles(response.getLicenseFiles());
+
+    records.add(record);
+    if (records.size() > consolidated) {
+      records.remove(0);
+    }
+
+    final FulfillmentRecordSet set = new FulfillmentRecordSet();
+    set.setFulfillments(new ArrayList<>(records));
+    final ConsolidatedLicense license = implementor.consolidateFulfillments(set);
+
+    serialize(PingRequest.class, ping);
+    serialize(PingResponse.class, pong);
+    serialize(GeneratorRequest.class, request);
+    serialize(GeneratorResponse.class, response);
+    serialize(FulfillmentRecordSet.class, set);
+    serialize(ConsolidatedLicense.class, license);
+  }
+
+  private <T> void serialize(final Class<T> type, final T value) throws Exception {
+    Utils.safeSerializeYaml(value);
+    Utils.safeSerializeJson(value);
+
+    if (this.marshaller != null) {
+      this.marshaller.marshal(new JAXBElement<>(new QName(namespace, type.getSimpleName()), type, value), discard);
+    }
+  }
+
+  /**
+   * @return a request built of the generated classes themselves, as SOAP requests are unmarshalled
+   */
+  private GeneratorRequest request(final String technology, final Random random) {
+    final List<Product> products = new ArrayList<>();
+
+    for (int i = 0; i < features; i += 8) {
+      final List<Feature> list = new ArrayList<>();
+      for (int j = i; j < Math.min(features, i + 8); j++) {
+        final Feature feature = new Feature();
+        feature.setName("warmup" + random.nextInt(64));
+        feature.setVersion("1.0");
+        feature.setCount(1 + random.nextInt(100));
+        list.add(feature);
+      }
+
+      final Product product = new Product();
+      product.setFeatures(list);
+      products.add(product);
+    }
+
+    final List<CustomAttributeDescriptor> attributes = new ArrayList<>();
+    if (random.nextBoolean()) {
+      final CustomAttributeDescriptor subnet = new CustomAttributeDescriptor();
+      subnet.setName("SUBNET_MASK");
+      subnet.setValue("10.0." + random.nextInt(4) + ".0/24");
+      attributes.add(subnet);
+    }
+
+    final AttributeSet fulfillmentTime = new AttributeSet();
+    fulfillmentTime.setAttributes(attributes);
+
+    final LicenseModel model = new LicenseModel();
+    model.setFulfillmentTimeAttributes(fulfillmentTime);
+
+    final LicenseFileDefinition file = new LicenseFileDefinition();
+    file.setName("License");
+    file.setLicenseStorageType(LicenseFileTypeENC.TEXT);
+
+    final LicenseTechnology tech = new LicenseTechnology();
+    tech.setName(technology);
+    tech.setLicenseFileDefinitions(new ArrayList<>(Collections.singletonList(file)));
+
+    final GeneratorRequest request = new GeneratorRequest();
+    request.setEntitledProducts(products);
+    request.setStartDate(date(2025, 1));
+    request.setExpirationDate(date(2026, 1 + random.nextInt(12)));
+    request.setLicenseTechnology(tech);
+    request.setLicenseModel(model);
+    return request;
+  }
+
+  private XMLGregorianCalendar date(final int year, final int month) {
+    final GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+    calendar.clear();
+    calendar.set(year, month - 1, 1);
+    return this.datatypes.newXMLGregorianCalendar(calendar);
+  }
+}
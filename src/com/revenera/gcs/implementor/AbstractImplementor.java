@@ -11,7 +11,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.StringJoiner;
 
 public abstract class AbstractImplementor implements LicenseGeneratorServiceInterface {
 
@@ -70,7 +70,7 @@ public abstract class AbstractImplementor implements LicenseGeneratorServiceInte
 
           this.info = Utils.safeSerializeYaml(pinfo);
 
-          this.str = String.format("%s | %s | %s | %s | %s | %s | %s | %s | %s | %s",
+          this.str = String.format("%s | %s | %s | %s | %s | %s | %s | %s | %s | %s | %s",
                                    logger.type().getSimpleName(),
                                    Application.getInstance().getBuildDate(),
                                    Application.getInstance().getBuildSequence(),
@@ -80,7 +80,8 @@ public abstract class AbstractImplementor implements LicenseGeneratorServiceInte
                                    pinfo.system.architecture,
                                    pinfo.hostName,
                                    pinfo.userName,
-                                   Application.getInstance().getResourcePath().toString());
+                                   Application.getInstance().getResourcePath().toString(),
+                                   pinfo.ready ? "ready" : "warming up");
 
 
           this.processedTime = Instant.now().toString();
@@ -114,7 +115,13 @@ public abstract class AbstractImplementor implements LicenseGeneratorServiceInte
 
   @Override
   public ConsolidatedLicense consolidateFulfillments(final FulfillmentRecordSet fulfillmentRecordset) throws LicGeneratorException {
-    final String license = fulfillmentRecordset.getFulfillments().stream().flatMap(fulfilment -> fulfilment.getLicenseFiles().stream()).filter(lfd -> String.class.isAssignableFrom(lfd.getValue().getClass())).map(lfd -> lfd.getValue().toString()).collect(Collectors.joining("\n"));
+    final String license = Consolidation.aggregate(
+            fulfillmentRecordset.getFulfillments(),
+            () -> new StringJoiner("\n"),
+            (joiner, fulfilment) -> fulfilment.getLicenseFiles().stream()
+                                              .filter(lfd -> String.class.isAssignableFrom(lfd.getValue().getClass()))
+                                              .forEach(lfd -> joiner.add(lfd.getValue().toString())),
+            StringJoiner::merge).toString();
 
     return new ConsolidatedLicense() {
       {
@@ -127,6 +134,18 @@ public abstract class AbstractImplementor implements LicenseGeneratorServiceInte
     };
   }
 
+  /**
+   * generate the licenses one after the other, see {@link BulkGeneration} for the service's own fan out
+   */
+  @Override
+  public BulkGeneratorResponse generateLicenses(final BulkGeneratorRequest requests) throws LicGeneratorException {
+    final BulkGeneratorResponse response = new BulkGeneratorResponse();
+    for (int i = 0; i < requests.getRequests().size(); i++) {
+      response.getResults().add(BulkGeneration.generate(i, this, requests.getRequests().get(i)));
+    }
+    return response;
+  }
+
   private <T> T except(final Class<T> type, final String message) {
     throw new RuntimeException(message + " | " + type.getName());
   }
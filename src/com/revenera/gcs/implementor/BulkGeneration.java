@@ -0,0 +1,213 @@
+package com.revenera.gcs.implementor;
+
+import com.flexnet.external.type.BulkGeneratorResponse;
+import com.flexnet.external.type.BulkGeneratorResult;
+import com.flexnet.external.type.GeneratorRequest;
+import com.flexnet.external.type.Status;
+import com.flexnet.external.webservice.keygenerator.LicGeneratorException;
+import com.flexnet.external.webservice.keygenerator.LicenseGeneratorServiceInterface;
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Generates the licenses of a bulk request on a dedicated, bounded pool.
+ *
+ * The requests are grouped by implementor and each group is cut into chunks of consecutive requests, a chunk
+ * runs its requests one after the other on one thread. The last chunk runs on the calling thread, and so does
+ * any chunk the pool has no room to queue, so a busy pool slows bulk callers down rather than queueing without
+ * bound. A request that fails gets a failed status in its result, the others are generated all the same, and
+ * the results are returned in the order of the requests.
+ *
+ * settings (system properties):
+ *   revenera.bulk.threads   pool threads (default available processors)
+ *   revenera.bulk.queue     chunks waiting for a thread, more run on the caller (default 4 per thread)
+ *   revenera.bulk.chunk     requests run one after the other on a thread (default 4)
+ *   revenera.bulk.max       requests in one bulk, more are refused (default 1000)
+ */
+public final class BulkGeneration {
+
+  private static final Log logger = Log.create(BulkGeneration.class);
+
+  public static final int status_generated = 0;
+  public static final int status_failed = 1;
+
+  static final int chunk = Math.max(1, Settings.getInt("revenera.bulk.chunk", 4));
+  static final int max = Settings.getInt("revenera.bulk.max", 1000);
+
+  private static final LongAdder bulks = new LongAdder();
+  private static final LongAdder items = new LongAdder();
+  private static final LongAdder failures = new LongAdder();
+
+  private static ThreadPoolExecutor pool;
+
+  private BulkGeneration() {
+  }
+
+  private static synchronized ThreadPoolExecutor pool() {
+    if (pool == null) {
+      final int threads = Math.max(1, Settings.getInt("revenera.bulk.threads", Runtime.getRuntime().availableProcessors()));
+      final int queue = Math.max(1, Settings.getInt("revenera.bulk.queue", threads * 4));
+
+      final AtomicInteger count = new AtomicInteger();
+      pool = new ThreadPoolExecutor(threads,
+                                    threads,
+                                    0,
+                                    TimeUnit.MILLISECONDS,
+                                    new ArrayBlockingQueue<>(queue),
+                                    runnable -> {
+                                      final Thread thread = new Thread(runnable, "revenera-bulk-" + count.getAndIncrement());
+                                      thread.setDaemon(true);
+                                      return thread;
+                                    },
+                                    // full or shut down, the caller generates the chunk itself
+                                    (runnable, executor) -> runnable.run());
+
+      logger.array(Log.Level.info, "bulk pool", threads, queue, chunk, max);
+
+      final Application application = Application.getInstance();
+      if (application != null) {
+        final ThreadPoolExecutor created = pool;
+        application.getDiagnostics().gauge("bulk_requests", bulks::sum);
+        application.getDiagnostics().gauge("bulk_items", items::sum);
+        application.getDiagnostics().gauge("bulk_items_failed", failures::sum);
+        application.getDiagnostics().gauge("bulk_threads_active", created::getActiveCount);
+        application.getDiagnostics().gauge("bulk_queue", () -> created.getQueue().size());
+      }
+    }
+    return pool;
+  }
+
+  /**
+   * stop the pool if it was started
+   */
+  public static synchronized void shutdown() {
+    if (pool != null) {
+      pool.shutdown();
+      try {
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      pool = null;
+    }
+  }
+
+  /**
+   * generate the license of every request with the implementor of its technology
+   *
+   * @param technology the technology id of a request, may throw when the request has none
+   * @return a result per request, in the order of the requests
+   */
+  public static BulkGeneratorResponse generate(final List<GeneratorRequest> requests,
+                                               final Function<GeneratorRequest, String> technology) {
+    if (requests.size() > max) {
+      throw new RuntimeException("bulk of " + requests.size() + " requests, at most " + max);
+    }
+
+    bulks.increment();
+
+    final BulkGeneratorResult[] results = new BulkGeneratorResult[requests.size()];
+
+    // request indexes by implementor, in the order the implementors are met
+    final Map<LicenseGeneratorServiceInterface, List<Integer>> groups = new LinkedHashMap<>();
+
+    final ImplementorFactory factory = Application.getInstance().getImplementorFactory();
+    for (int i = 0; i < results.length; i++) {
+      try {
+        final LicenseGeneratorServiceInterface implementor = factory.getImplementor(technology.apply(requests.get(i)));
+        if (implementor == null) {
+          throw new RuntimeException("no implementor");
+        }
+        groups.computeIfAbsent(implementor, key -> new ArrayList<>()).add(i);
+      }
+      catch (final Throwable t) {
+        results[i] = failed(i, t);
+      }
+    }
+
+    final List<Runnable> chunks = new ArrayList<>();
+    groups.forEach((implementor, indexes) -> {
+      for (int from = 0; from < indexes.size(); from += chunk) {
+        final List<Integer> range = indexes.subList(from, Math.min(indexes.size(), from + chunk));
+        chunks.add(() -> {
+          for (final int index : range) {
+            results[index] = generate(index, implementor, requests.get(index));
+          }
+        });
+      }
+    });
+
+    if (chunks.size() > 1) {
+      final ThreadPoolExecutor executor = pool();
+
+      final List<CompletableFuture<Void>> running = new ArrayList<>(chunks.size() - 1);
+      for (final Runnable run : chunks.subList(0, chunks.size() - 1)) {
+        running.add(CompletableFuture.runAsync(run, executor));
+      }
+      chunks.get(chunks.size() - 1).run();
+
+      CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0])).join();
+    }
+    else if (!chunks.isEmpty()) {
+      chunks.get(0).run();
+    }
+
+    final BulkGeneratorResponse response = new BulkGeneratorResponse();
+    response.setResults(new ArrayList<>(Arrays.asList(results)));
+    return response;
+  }
+
+  /**
+   * @return the result of one request, failed rather than thrown when it cannot be generated
+   */
+  public static BulkGeneratorResult generate(final int index,
+                                             final LicenseGeneratorServiceInterface implementor,
+                                             final GeneratorRequest request) {
+    items.increment();
+    try {
+      final BulkGeneratorResult result = status(index, status_generated, "generated");
+      result.setGeneratorResponse(implementor.generateLicense(request));
+      return result;
+    }
+    catch (final Throwable t) {
+      return failed(index, t);
+    }
+  }
+
+  private static BulkGeneratorResult failed(final int index, final Throwable t) {
+    failures.increment();
+    logger.array(Log.Level.debug, "bulk request failed", index, t.getClass().getSimpleName(), t.getMessage());
+
+    final StringBuilder message = new StringBuilder(t.getClass().getSimpleName()).append(" | ").append(t.getMessage());
+    if (t instanceof LicGeneratorException && ((LicGeneratorException) t).getFaultInfo() != null) {
+      message.append(" | ").append(((LicGeneratorException) t).getFaultInfo().getMessage());
+    }
+    return status(index, status_failed, message.toString());
+  }
+
+  private static BulkGeneratorResult status(final int index, final int code, final String message) {
+    final Status status = new Status();
+    status.setCode(code);
+    status.setMessage(message);
+
+    final BulkGeneratorResult result = new BulkGeneratorResult();
+    result.setIndex(index);
+    result.setStatus(status);
+    return result;
+  }
+}
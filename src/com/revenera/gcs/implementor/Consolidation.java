@@ -0,0 +1,166 @@
+package com.revenera.gcs.implementor;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Folds the fulfillments of a consolidation into one aggregate, on a dedicated fork-join pool when there are
+ * many of them.
+ *
+ * A large list is split into contiguous ranges that are aggregated independently, and the partial aggregates
+ * are combined left to right. With an associative combiner that keeps the order of its arguments, the result
+ * is the one a single thread would produce, whatever the split.
+ *
+ * settings (system properties):
+ *   revenera.consolidation.parallel.threshold   fulfillments from which to go parallel (default 1000)
+ *   revenera.consolidation.parallel.split       ranges at most this long are not split further (default 250)
+ *   revenera.consolidation.parallelism          pool threads (default available processors)
+ */
+public final class Consolidation {
+
+  private static final Log logger = Log.create(Consolidation.class);
+
+  public static final int threshold = Settings.getInt("revenera.consolidation.parallel.threshold", 1000);
+  static final int split = Math.max(1, Settings.getInt("revenera.consolidation.parallel.split", 250));
+
+  private static final LongAdder parallel = new LongAdder();
+
+  private static ForkJoinPool pool;
+
+  private Consolidation() {
+  }
+
+  private static synchronized ForkJoinPool pool() {
+    if (pool == null) {
+      final int parallelism = Math.max(1, Settings.getInt("revenera.consolidation.parallelism", Runtime.getRuntime().availableProcessors()));
+
+      pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+        thread.setName("revenera-consolidation-" + thread.getPoolIndex());
+        return thread;
+      }, null, false);
+
+      logger.array(Log.Level.info, "consolidation pool", parallelism, threshold, split);
+
+      final Application application = Application.getInstance();
+      if (application != null) {
+        final ForkJoinPool created = pool;
+        application.getDiagnostics().gauge("consolidations_parallel", parallel::sum);
+        application.getDiagnostics().gauge("consolidation_threads_active", created::getActiveThreadCount);
+      }
+    }
+    return pool;
+  }
+
+  /**
+   * stop the pool if it was started
+   */
+  public static synchronized void shutdown() {
+    if (pool != null) {
+      pool.shutdown();
+      try {
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      pool = null;
+    }
+  }
+
+  /**
+   * fold the items into a new aggregate, in parallel from the configured threshold
+   *
+   * @param identity creates an empty aggregate
+   * @param accumulator adds one item to an aggregate
+   * @param combiner merges the aggregate of a later range into the one of an earlier range and returns it
+   */
+  public static <T, A> A aggregate(final List<T> items,
+                                   final Supplier<A> identity,
+                                   final BiConsumer<A, T> accumulator,
+                                   final BinaryOperator<A> combiner) {
+    return aggregate(items, threshold, identity, accumulator, combiner);
+  }
+
+  /**
+   * @param parallelFrom item count from which to go parallel
+   */
+  public static <T, A> A aggregate(final List<T> items,
+                                   final int parallelFrom,
+                                   final Supplier<A> identity,
+                                   final BiConsumer<A, T> accumulator,
+                                   final BinaryOperator<A> combiner) {
+    if (items.size() < parallelFrom || items.size() <= split) {
+      return fold(items, 0, items.size(), identity, accumulator);
+    }
+
+    parallel.increment();
+
+    return pool().invoke(new Range<>(items, 0, items.size(), identity, accumulator, combiner));
+  }
+
+  static <T, A> A fold(final List<T> items,
+                       final int from,
+                       final int to,
+                       final Supplier<A> identity,
+                       final BiConsumer<A, T> accumulator) {
+    final A aggregate = identity.get();
+    for (int i = from; i < to; i++) {
+      accumulator.accept(aggregate, items.get(i));
+    }
+    return aggregate;
+  }
+
+  private static final class Range<T, A> extends RecursiveTask<A> {
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> items;
+    private final int from;
+    private final int to;
+    private final Supplier<A> identity;
+    private final BiConsumer<A, T> accumulator;
+    private final BinaryOperator<A> combiner;
+
+    Range(final List<T> items,
+          final int from,
+          final int to,
+          final Supplier<A> identity,
+          final BiConsumer<A, T> accumulator,
+          final BinaryOperator<A> combiner) {
+      this.items = items;
+      this.from = from;
+      this.to = to;
+      this.identity = identity;
+      this.accumulator = accumulator;
+      this.combiner = combiner;
+    }
+
+    @Override
+    protected A compute() {
+      if (this.to - this.from <= split) {
+        return fold(this.items, this.from, this.to, this.identity, this.accumulator);
+      }
+
+      final int middle = (this.from + this.to) >>> 1;
+
+      final Range<T, A> left = new Range<>(this.items, this.from, middle, this.identity, this.accumulator, this.combiner);
+      final Range<T, A> right = new Range<>(this.items, middle, this.to, this.identity, this.accumulator, this.combiner);
+
+      right.fork();
+      final A aggregate = left.compute();
+
+      return this.combiner.apply(aggregate, right.join());
+    }
+  }
+}
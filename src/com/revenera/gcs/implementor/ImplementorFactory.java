@@ -1,40 +1,119 @@
 package com.revenera.gcs.implementor;
 
 import com.flexnet.external.webservice.keygenerator.LicenseGeneratorServiceInterface;
+import com.revenera.gcs.Application;
 import com.revenera.gcs.utils.Log;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Routes a technology id to its implementor.
+ *
+ * Implementors are added while the application initializes, {@link #freeze()} then publishes an immutable
+ * table keyed by the upper-cased technology ids, so that routing a request is one map lookup, no lock and no
+ * logging. An id in another case takes a second lookup, an id without an implementor falls back to DEF.
+ * Requests are counted per technology, and those DEF took as a fallback on their own.
+ */
 public class ImplementorFactory {
   private final static Log logger = Log.create(ImplementorFactory.class);
 
   public final static String default_technology_id = "DEF";
 
-  private final Map<String, LicenseGeneratorServiceInterface> implementors = new HashMap<>();
+  private static final class Route {
+    final LicenseGeneratorServiceInterface implementor;
+    final LongAdder hits = new LongAdder();
 
-  public void addImplementor(final AbstractImplementor imp) {
+    Route(final LicenseGeneratorServiceInterface impl) {
+      this.implementor = impl;
+    }
+  }
+
+  /** implementors added before the freeze, by upper-cased technology id */
+  private final Map<String, AbstractImplementor> added = new LinkedHashMap<>();
+
+  private volatile Map<String, Route> routes = Collections.emptyMap();
+  private volatile Map<String, LicenseGeneratorServiceInterface> implementors = Collections.emptyMap();
+  private volatile Route fallback;
+  private boolean frozen;
+
+  private final LongAdder fallbacks = new LongAdder();
+
+  public synchronized void addImplementor(final AbstractImplementor imp) {
+    if (this.frozen) {
+      throw new IllegalStateException("implementors are frozen | " + imp.technologyId());
+    }
 
     logger.log(Log.Level.debug, imp.technologyId() + " -> " + imp.getClass().getSimpleName());
 
-    this.implementors.put(imp.technologyId(), imp);
+    this.added.put(imp.technologyId().toUpperCase(Locale.ROOT), imp);
+  }
+
+  /**
+   * publish the dispatch table of the implementors added, no more can be added
+   */
+  public synchronized void freeze() {
+    if (this.frozen) {
+      return;
+    }
+
+    final Map<String, Route> table = new HashMap<>();
+    this.added.forEach((id, implementor) -> table.put(id, new Route(implementor)));
+
+    this.fallback = table.get(default_technology_id);
+    this.routes = Collections.unmodifiableMap(table);
+    this.implementors = Collections.unmodifiableMap(new TreeMap<String, LicenseGeneratorServiceInterface>(this.added));
+    this.frozen = true;
+
+    final Application application = Application.getInstance();
+    if (application != null) {
+      table.forEach((id, route) -> application.getDiagnostics().gauge("implementor_hits_" + id, route.hits::sum));
+      application.getDiagnostics().gauge("implementor_fallbacks", this.fallbacks::sum);
+    }
+
+    logger.array(Log.Level.info, "implementors", table.keySet());
+  }
+
+  /**
+   * @return the implementors by upper-cased technology id, none before the freeze
+   */
+  public Map<String, LicenseGeneratorServiceInterface> getImplementors() {
+    return this.implementors;
   }
 
   public LicenseGeneratorServiceInterface getDefaultImplementor() {
-    return this.implementors.get(default_technology_id);
+    final Route route = this.fallback;
+    return route == null ? null : route.implementor;
   }
 
   public LicenseGeneratorServiceInterface getImplementor(final String id) {
+    if (id != null) {
+      Route route = this.routes.get(id);
+      if (route == null) {
+        route = this.routes.get(id.toUpperCase(Locale.ROOT));
+      }
 
-    if (this.implementors.containsKey(id)) {
-      final LicenseGeneratorServiceInterface impl = this.implementors.get(id);
+      if (route != null) {
+        route.hits.increment();
+        return route.implementor;
+      }
+    }
 
-      logger.me(impl);
+    this.fallbacks.increment();
+    return getDefaultImplementor();
+  }
 
-      return this.implementors.get(id);
-    }
-    else {
-      return getDefaultImplementor();
-    }
+  public long getHits(final String id) {
+    final Route route = this.routes.get(id.toUpperCase(Locale.ROOT));
+    return route == null ? 0 : route.hits.sum();
+  }
+
+  public long getFallbacks() {
+    return this.fallbacks.sum();
   }
 }
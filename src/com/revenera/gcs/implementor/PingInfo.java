@@ -1,5 +1,6 @@
 package com.revenera.gcs.implementor;
 
+import com.revenera.gcs.Application;
 import org.apache.commons.lang3.SystemUtils;
 
 public class PingInfo {
@@ -27,6 +28,8 @@ public class PingInfo {
     }
   }
 
+  /** false while the application warms up */
+  public final Boolean ready = Application.getInstance() != null && Application.getInstance().isReady();
   public final OS system = new OS();
   public final ENV environment = new ENV();
   public final String hostName = SystemUtils.getHostName();
@@ -0,0 +1,192 @@
+package com.revenera.gcs.implementor.hcl;
+
+import com.revenera.gcs.signer.Hashes;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The aggregated License files of RI fulfillments, kept between consolidations.
+ *
+ * FNO sends the whole fulfillment set every time a consolidated license is regenerated, usually with one
+ * fulfillment more than the time before. Each fulfillment's files are aggregated once into a
+ * {@link FeatureAggregator.Partial} and cached by fulfillment id and the SHA-256 of the file values, so a
+ * changed fulfillment is a miss rather than a stale hit. A consolidation then only parses the new or changed
+ * fulfillments and merges the cached partials.
+ *
+ * Entries are evicted least recently used first once their approximate heap footprint exceeds the budget.
+ * Fulfillments without an id are not cached.
+ *
+ * settings (system properties):
+ *   revenera.consolidation.cache.bytes   heap budget, 0 disables the cache (default 64MB)
+ */
+final class ConsolidationCache {
+
+  private static final Log logger = Log.create(ConsolidationCache.class);
+
+  /** per entry overhead on top of the partial, map entry, key and digest */
+  private static final long entry_weight = 160;
+
+  private static final class Holder {
+    static final ConsolidationCache instance = new ConsolidationCache(Settings.getLong("revenera.consolidation.cache.bytes", 64L << 20));
+  }
+
+  static ConsolidationCache instance() {
+    return Holder.instance;
+  }
+
+  private static final class Key {
+    private final String fulfillment;
+    private final byte[] digest;
+
+    Key(final String fulfillmentId, final byte[] valuesDigest) {
+      this.fulfillment = fulfillmentId;
+      this.digest = valuesDigest;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return Arrays.equals(this.digest, key.digest) && this.fulfillment.equals(key.fulfillment);
+    }
+
+    @Override
+    public int hashCode() {
+      return ByteBuffer.wrap(this.digest).getInt();
+    }
+  }
+
+  private static final class Entry {
+    private final FeatureAggregator.Partial partial;
+    private final long weight;
+
+    Entry(final FeatureAggregator.Partial value, final long bytes) {
+      this.partial = value;
+      this.weight = bytes;
+    }
+  }
+
+  private final long capacity;
+
+  /** access ordered, the eldest entry is the least recently used */
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+  private long weight;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  ConsolidationCache(final long bytes) {
+    this.capacity = Math.max(0, bytes);
+
+    logger.array(Log.Level.info, "consolidation cache", this.capacity);
+  }
+
+  boolean isEnabled() {
+    return this.capacity > 0;
+  }
+
+  /**
+   * @param fulfillmentId identity of the fulfillment, null when it has none
+   * @param values the License file values of the fulfillment, in order
+   * @param aggregate aggregates the values, called on a miss
+   * @return the partial aggregate of the values
+   */
+  FeatureAggregator.Partial get(final String fulfillmentId,
+                                final List<String> values,
+                                final Supplier<FeatureAggregator.Partial> aggregate) {
+    if (!isEnabled() || fulfillmentId == null) {
+      return aggregate.get();
+    }
+
+    final Key key = key(fulfillmentId, values);
+
+    synchronized (this.entries) {
+      final Entry entry = this.entries.get(key);
+      if (entry != null) {
+        this.hits.increment();
+        return entry.partial;
+      }
+    }
+
+    this.misses.increment();
+
+    // aggregated outside the lock, concurrent misses on the same key both parse and the last one stays
+    final FeatureAggregator.Partial partial = aggregate.get();
+    final long bytes = entry_weight + 2L * fulfillmentId.length() + partial.weight();
+
+    if (bytes <= this.capacity) {
+      synchronized (this.entries) {
+        final Entry previous = this.entries.put(key, new Entry(partial, bytes));
+        this.weight += bytes - (previous == null ? 0 : previous.weight);
+
+        final Iterator<Entry> eldest = this.entries.values().iterator();
+        while (this.weight > this.capacity && eldest.hasNext()) {
+          this.weight -= eldest.next().weight;
+          eldest.remove();
+          this.evictions.increment();
+        }
+      }
+    }
+    return partial;
+  }
+
+  /**
+   * SHA-256 over the values, each prefixed by its length so that values cannot shift across boundaries
+   */
+  private static Key key(final String fulfillmentId, final List<String> values) {
+    final MessageDigest digest = Hashes.sha256();
+    final byte[] length = new byte[4];
+
+    for (final String value : values) {
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      ByteBuffer.wrap(length).putInt(bytes.length);
+      digest.update(length);
+      digest.update(bytes);
+    }
+    return new Key(fulfillmentId, digest.digest());
+  }
+
+  void clear() {
+    synchronized (this.entries) {
+      this.entries.clear();
+      this.weight = 0;
+    }
+  }
+
+  long getHits() {
+    return this.hits.sum();
+  }
+
+  long getMisses() {
+    return this.misses.sum();
+  }
+
+  long getEvictions() {
+    return this.evictions.sum();
+  }
+
+  long getEntries() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+
+  long getBytes() {
+    synchronized (this.entries) {
+      return this.weight;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package com.revenera.gcs.implementor.hcl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sums feature counts by feature line key, name, version, expiration and subnet, without building a key string
+ * or a FeatureLine for every line consolidated.
+ *
+ * Names, versions and subnets are dictionary-encoded to ints (0 = null) and the key of a line is packed into
+ * three longs, name << 32 | version, expiration and subnet. Keys sit in an open-addressing table of primitive
+ * arrays whose slots point at groups, and a group is its key and a long count. Memory follows the number of
+ * distinct keys and strings, not the number of lines. Groups are only ordered once, by {@link #lines()}, the way
+ * the TreeMap keyed by {@link FeatureLine#key()} ordered them.
+ *
+ * Not thread safe, parallel consolidations aggregate ranges of fulfillments separately and {@link #merge} them.
+ */
+final class FeatureAggregator {
+
+  private static final int key_width = 3;
+
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> strings = new ArrayList<>();
+
+  /** open-addressing table, group index + 1 per slot, 0 = empty */
+  private int[] slots = new int[64];
+
+  /** groups in the order their keys were first seen */
+  private long[] keys = new long[32 * key_width];
+  private long[] counts = new long[32];
+  private int size;
+
+  FeatureAggregator() {
+    this.strings.add(null);
+  }
+
+  /**
+   * @return the id of the string, 0 for null
+   */
+  int intern(final String value) {
+    if (value == null) {
+      return 0;
+    }
+
+    final Integer id = this.ids.get(value);
+    if (id != null) {
+      return id;
+    }
+
+    this.strings.add(value);
+    this.ids.put(value, this.strings.size() - 1);
+    return this.strings.size() - 1;
+  }
+
+  /**
+   * @return the ids of a dictionary, translated once so that its lines are only array lookups
+   */
+  int[] intern(final String[] dictionary) {
+    final int[] translated = new int[dictionary.length];
+    for (int i = 0; i < dictionary.length; i++) {
+      translated[i] = intern(dictionary[i]);
+    }
+    return translated;
+  }
+
+  private static int hash(final long nameVersion, final long expiration, final long subnet) {
+    long hash = nameVersion * 0x9e3779b97f4a7c15L;
+    hash = (hash ^ expiration) * 0xc2b2ae3d27d4eb4fL;
+    hash = (hash ^ subnet) * 0x165667b19e3779f9L;
+    return (int) (hash ^ hash >>> 32);
+  }
+
+  void add(final FeatureLine line) {
+    add(intern(line.featureName), intern(line.featureVersion), line.expirationDate, intern(line.ipAddress), line.featureCount);
+  }
+
+  /**
+   * @param name feature name id
+   * @param version feature version id
+   * @param subnet subnet id
+   */
+  void add(final int name, final int version, final long expiration, final int subnet, final long count) {
+    final long nameVersion = (long) name << 32 | (version & 0xffffffffL);
+    final int mask = this.slots.length - 1;
+
+    for (int slot = hash(nameVersion, expiration, subnet) & mask; ; slot = (slot + 1) & mask) {
+      final int group = this.slots[slot] - 1;
+
+      if (group < 0) {
+        this.slots[slot] = insert(nameVersion, expiration, subnet, count) + 1;
+
+        if (this.size * 2 > this.slots.length) {
+          rehash();
+        }
+        return;
+      }
+
+      final int k = group * key_width;
+      if (this.keys[k] == nameVersion && this.keys[k + 1] == expiration && this.keys[k + 2] == subnet) {
+        this.counts[group] += count;
+        return;
+      }
+    }
+  }
+
+  private int insert(final long nameVersion, final long expiration, final long subnet, final long count) {
+    if (this.size == this.counts.length) {
+      this.counts = Arrays.copyOf(this.counts, this.size * 2);
+      this.keys = Arrays.copyOf(this.keys, this.size * 2 * key_width);
+    }
+
+    final int k = this.size * key_width;
+    this.keys[k] = nameVersion;
+    this.keys[k + 1] = expiration;
+    this.keys[k + 2] = subnet;
+    this.counts[this.size] = count;
+
+    return this.size++;
+  }
+
+  private void rehash() {
+    final int[] old = this.slots;
+    this.slots = new int[old.length * 2];
+
+    final int mask = this.slots.length - 1;
+
+    for (final int entry : old) {
+      if (entry != 0) {
+        final int k = (entry - 1) * key_width;
+
+        int slot = hash(this.keys[k], this.keys[k + 1], this.keys[k + 2]) & mask;
+        while (this.slots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        this.slots[slot] = entry;
+      }
+    }
+  }
+
+  /**
+   * add the groups of another aggregator, in the order they were first seen there, as if its lines had been
+   * added to this one after all of this one's
+   *
+   * @return this
+   */
+  FeatureAggregator merge(final FeatureAggregator other) {
+    add(intern(other.strings.toArray(new String[0])), other.keys, other.counts, other.size);
+    return this;
+  }
+
+  /**
+   * add the groups of a partial aggregate, as {@link #merge} does
+   */
+  void add(final Partial partial) {
+    add(intern(partial.strings), partial.keys, partial.counts, partial.counts.length);
+  }
+
+  private void add(final int[] ids, final long[] groups, final long[] sums, final int count) {
+    for (int group = 0; group < count; group++) {
+      final int k = group * key_width;
+
+      add(ids[(int) (groups[k] >>> 32)],
+          ids[(int) groups[k]],
+          groups[k + 1],
+          ids[(int) groups[k + 2]],
+          sums[group]);
+    }
+  }
+
+  /**
+   * @return the groups aggregated so far, trimmed and detached from this aggregator
+   */
+  Partial partial() {
+    return new Partial(this.strings.toArray(new String[0]),
+                       Arrays.copyOf(this.keys, this.size * key_width),
+                       Arrays.copyOf(this.counts, this.size));
+  }
+
+  /**
+   * An immutable aggregate, the strings and groups of an aggregator without its lookup tables, small enough to
+   * keep per fulfillment.
+   */
+  static final class Partial {
+    private final String[] strings;
+    private final long[] keys;
+    private final long[] counts;
+
+    private Partial(final String[] dictionary, final long[] groups, final long[] sums) {
+      this.strings = dictionary;
+      this.keys = groups;
+      this.counts = sums;
+    }
+
+    /**
+     * @return distinct keys
+     */
+    int size() {
+      return this.counts.length;
+    }
+
+    /**
+     * @return approximate heap footprint in bytes
+     */
+    long weight() {
+      long weight = 16 + 3 * 16 + 8L * (this.keys.length + this.counts.length) + 4L * this.strings.length;
+      for (final String string : this.strings) {
+        if (string != null) {
+          weight += 40 + 2L * string.length();
+        }
+      }
+      return weight;
+    }
+  }
+
+  /**
+   * @return distinct keys aggregated
+   */
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * @return one line per key, ordered by {@link FeatureLine#key()}. keys that only differ as ints but format
+   * to the same string are merged into the first seen, as a map keyed by the string would have done.
+   */
+  List<FeatureLine> lines() {
+    final Map<String, FeatureLine> ordered = new TreeMap<>();
+
+    for (int group = 0; group < this.size; group++) {
+      final int k = group * key_width;
+
+      final FeatureLine line = new FeatureLine();
+      line.featureName = this.strings.get((int) (this.keys[k] >>> 32));
+      line.featureVersion = this.strings.get((int) this.keys[k]);
+      line.expirationDate = this.keys[k + 1];
+      line.ipAddress = this.strings.get((int) this.keys[k + 2]);
+      line.featureCount = this.counts[group];
+
+      final FeatureLine existing = ordered.putIfAbsent(line.key(), line);
+      if (existing != null) {
+        existing.featureCount += line.featureCount;
+      }
+    }
+    return new ArrayList<>(ordered.values());
+  }
+}
@@ -0,0 +1,199 @@
+package com.revenera.gcs.implementor.hcl;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.NumberInput;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.revenera.gcs.utils.Utils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+class FeatureLine {
+  @JsonIgnore
+  public String key() {
+    return String.format("%s|%s|%d|%s", this.featureName, this.featureVersion, this.expirationDate, this.ipAddress);
+  }
+
+  static long toLong(final XMLGregorianCalendar date) {
+    return date == null ? 0L : date.toGregorianCalendar().getTime().getTime();
+  }
+
+  public String featureName;
+  public String featureVersion;
+  public long featureCount;
+  public long expirationDate;
+  public String ipAddress;
+
+  public FeatureLine() {
+  }
+
+  public boolean hashSubnetMask() {
+    return StringUtils.isNotEmpty(this.ipAddress);
+  }
+
+  public static FeatureLine create(final com.flexnet.external.type.Feature feature, final XMLGregorianCalendar startDate, final XMLGregorianCalendar expiration, final String subnet) {
+    return new FeatureLine() {
+      {
+        this.featureName = feature.getName();
+        this.featureVersion = feature.getVersion();
+        this.featureCount = feature.getCount();
+        this.expirationDate = toLong(expiration);
+        this.ipAddress = subnet;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder bfr = new StringBuilder();
+    bfr.append(featureName)
+       .append(" ")
+       .append(featureCount);
+
+
+    if (this.expirationDate > 0) {
+      bfr.append(" ")
+         .append(new Date(this.expirationDate).toInstant().toString());
+    }
+
+    if (hashSubnetMask()) {
+      bfr.append(" ")
+         .append(this.ipAddress);
+    }
+
+    return bfr.toString();
+  }
+
+  public void add(final FeatureLine value) {
+    if (key().equals(value.key())) {
+      this.featureCount += value.featureCount;
+    }
+  }
+
+  static final TypeReference<List<FeatureLine>> featureLineListType = new TypeReference<List<FeatureLine>>() {
+  };
+
+  public static String serailizeList(final List<FeatureLine> features) {
+    try {
+      return Utils.yaml_mapper.writeValueAsString(features);
+    }
+    catch (final Throwable t) {
+      throw new RuntimeException(t);
+    }
+  }
+
+  static List<FeatureLine>deserializeList(final String payload) {
+    try {
+      return Utils.yaml_mapper.readValue(payload, featureLineListType);
+    }
+    catch (final Throwable t) {
+      throw new RuntimeException(t);
+    }
+  }
+
+  /**
+   * fold a serialized list into the aggregator token by token, without building the list or a tree
+   *
+   * @param payload a list written by {@link #serailizeList}
+   */
+  static void aggregate(final String payload, final FeatureAggregator aggregator) {
+    try (final JsonParser parser = Utils.yaml_mapper.getFactory().createParser(payload)) {
+      JsonToken token = parser.nextToken();
+
+      if (token == null || token == JsonToken.VALUE_NULL) {
+        return;
+      }
+      if (token != JsonToken.START_ARRAY) {
+        throw new JsonParseException(parser, "feature line list expected, found " + token);
+      }
+
+      final FeatureLine line = new FeatureLine();
+
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token != JsonToken.START_OBJECT) {
+          throw new JsonParseException(parser, "feature line expected, found " + token);
+        }
+
+        read(parser, line);
+        aggregator.add(line);
+      }
+    }
+    catch (final Throwable t) {
+      throw new RuntimeException(t);
+    }
+  }
+
+  /**
+   * read the fields of one line, the parser is on its START_OBJECT. fields take the values the object mapper
+   * would give them, absent ones are reset.
+   */
+  private static void read(final JsonParser parser, final FeatureLine line) throws IOException {
+    line.featureName = null;
+    line.featureVersion = null;
+    line.featureCount = 0L;
+    line.expirationDate = 0L;
+    line.ipAddress = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+
+      if (parser.nextToken().isStructStart()) {
+        throw new JsonParseException(parser, "scalar expected for feature line field | " + field);
+      }
+
+      switch (field) {
+        case "featureName":
+          line.featureName = parser.getValueAsString();
+          break;
+        case "featureVersion":
+          line.featureVersion = parser.getValueAsString();
+          break;
+        case "featureCount":
+          line.featureCount = number(parser, field);
+          break;
+        case "expirationDate":
+          line.expirationDate = number(parser, field);
+          break;
+        case "ipAddress":
+          line.ipAddress = parser.getValueAsString();
+          break;
+        default:
+          throw new JsonParseException(parser, "unrecognized feature line field | " + field);
+      }
+    }
+  }
+
+  /**
+   * @return the numeric field the parser is on, coerced as the object mapper would: numbers, numeric text,
+   * null and empty text as 0. anything else fails, as it does for the mapper.
+   */
+  private static long number(final JsonParser parser, final String field) throws IOException {
+    switch (parser.currentToken()) {
+      case VALUE_NUMBER_INT:
+        return parser.getLongValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getValueAsLong();
+      case VALUE_NULL:
+        return 0L;
+      case VALUE_STRING:
+        final String text = parser.getText().trim();
+        if (text.isEmpty() || "null".equals(text)) {
+          return 0L;
+        }
+        try {
+          return NumberInput.parseLong(text);
+        }
+        catch (final NumberFormatException e) {
+          throw new JsonParseException(parser, "number expected for feature line field | " + field + " | " + text, e);
+        }
+      default:
+        throw new JsonParseException(parser, "number expected for feature line field | " + field + " | " + parser.currentToken());
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package com.revenera.gcs.implementor.hcl;
+
+import com.revenera.gcs.utils.Settings;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The intermediate format of an RI License file, the feature lines generateLicense hands to FNO and
+ * consolidateFulfillments gets back.
+ *
+ * The value stays text so that FNO stores and returns it like the YAML it replaces: the magic "RIF" and a
+ * format version digit, followed by the Base64 of
+ *
+ *   varint   number of strings
+ *            per string, varint length then the UTF-8 bytes
+ *   varint   number of lines
+ *            per line
+ *              varint   feature name, string index + 1 (0 = null)
+ *              varint   feature version, string index + 1
+ *              zigzag   feature count
+ *              zigzag   expiration date, epoch millis
+ *              varint   subnet, string index + 1
+ *
+ * Values without the magic are read as the YAML lists written before, so fulfillments already stored in FNO
+ * keep consolidating. The format written is chosen by -Drevenera.ri.license.format, yaml (default) or binary.
+ *
+ * Nodes before this encoding cannot read binary values, so switching to it is a two step rollout: deploy with
+ * yaml written until every node reads both formats, then set binary. The default turns to binary once no
+ * node older than this one is left.
+ */
+final class FeatureLineEncoding {
+
+  enum Format {
+    binary,
+    yaml
+  }
+
+  static final String magic = "RIF";
+  static final char version = '1';
+
+  static final Format format = Settings.getEnum("revenera.ri.license.format", Format.yaml);
+
+  private FeatureLineEncoding() {
+  }
+
+  /**
+   * @return the License file value in the configured format
+   */
+  static String write(final List<FeatureLine> lines) {
+    return format == Format.yaml ? FeatureLine.serailizeList(lines) : encode(lines);
+  }
+
+  static boolean isEncoded(final String value) {
+    return value.startsWith(magic);
+  }
+
+  static String encode(final List<FeatureLine> lines) {
+    final Map<String, Integer> strings = new HashMap<>();
+    final List<String> dictionary = new ArrayList<>();
+
+    final int[] indexes = new int[lines.size() * 3];
+    int i = 0;
+    for (final FeatureLine line : lines) {
+      indexes[i++] = index(line.featureName, strings, dictionary);
+      indexes[i++] = index(line.featureVersion, strings, dictionary);
+      indexes[i++] = index(line.ipAddress, strings, dictionary);
+    }
+
+    final Output out = new Output(32 + lines.size() * 12);
+
+    out.varint(dictionary.size());
+    for (final String string : dictionary) {
+      final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      out.varint(bytes.length);
+      out.write(bytes, 0, bytes.length);
+    }
+
+    out.varint(lines.size());
+    i = 0;
+    for (final FeatureLine line : lines) {
+      out.varint(indexes[i++]);
+      out.varint(indexes[i++]);
+      out.zigzag(line.featureCount);
+      out.zigzag(line.expirationDate);
+      out.varint(indexes[i++]);
+    }
+
+    return magic + version + Base64.getEncoder().encodeToString(out.toByteArray());
+  }
+
+  private static int index(final String value, final Map<String, Integer> strings, final List<String> dictionary) {
+    if (value == null) {
+      return 0;
+    }
+
+    Integer index = strings.get(value);
+    if (index == null) {
+      dictionary.add(value);
+      index = dictionary.size();
+      strings.put(value, index);
+    }
+    return index;
+  }
+
+  /**
+   * receives what {@link #decode} reads, strings as indexes into the dictionary (0 = null)
+   */
+  private interface Sink {
+    void dictionary(String[] strings);
+
+    void line(int name, int version, long count, long expiration, int subnet);
+  }
+
+  /**
+   * @param value a License file value, in either format
+   */
+  static List<FeatureLine> read(final String value) {
+    if (!isEncoded(value)) {
+      return FeatureLine.deserializeList(value);
+    }
+
+    final List<FeatureLine> lines = new ArrayList<>();
+    decode(value, new Sink() {
+      private String[] strings;
+
+      @Override
+      public void dictionary(final String[] strings) {
+        this.strings = strings;
+      }
+
+      @Override
+      public void line(final int name, final int version, final long count, final long expiration, final int subnet) {
+        final FeatureLine line = new FeatureLine();
+        line.featureName = this.strings[name];
+        line.featureVersion = this.strings[version];
+        line.featureCount = count;
+        line.expirationDate = expiration;
+        line.ipAddress = this.strings[subnet];
+        lines.add(line);
+      }
+    });
+    return lines;
+  }
+
+  /**
+   * fold a License file value, in either format, into the aggregate
+   */
+  static void aggregate(final String value, final FeatureAggregator aggregator) {
+    if (!isEncoded(value)) {
+      FeatureLine.aggregate(value, aggregator);
+      return;
+    }
+
+    decode(value, new Sink() {
+      private int[] ids;
+
+      @Override
+      public void dictionary(final String[] strings) {
+        this.ids = aggregator.intern(strings);
+      }
+
+      @Override
+      public void line(final int name, final int version, final long count, final long expiration, final int subnet) {
+        aggregator.add(this.ids[name], this.ids[version], expiration, this.ids[subnet], count);
+      }
+    });
+  }
+
+  private static void decode(final String value, final Sink sink) {
+    if (value.length() <= magic.length() || value.charAt(magic.length()) != version) {
+      throw new IllegalArgumentException("unsupported RI license format | " + value.substring(0, Math.min(value.length(), magic.length() + 1)));
+    }
+
+    final ByteBuffer in = ByteBuffer.wrap(Base64.getDecoder().decode(value.substring(magic.length() + 1)));
+
+    try {
+      final String[] dictionary = new String[1 + length(in)];
+      for (int i = 1; i < dictionary.length; i++) {
+        final int length = length(in);
+        dictionary[i] = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+      }
+      sink.dictionary(dictionary);
+
+      for (int count = length(in); count > 0; count--) {
+        final int name = reference(in, dictionary);
+        final int version = reference(in, dictionary);
+        final long featureCount = zigzag(in);
+        final long expiration = zigzag(in);
+        final int subnet = reference(in, dictionary);
+
+        sink.line(name, version, featureCount, expiration, subnet);
+      }
+    }
+    catch (final BufferUnderflowException e) {
+      throw new IllegalArgumentException("corrupt RI license value", e);
+    }
+
+    if (in.hasRemaining()) {
+      throw new IllegalArgumentException("corrupt RI license value | " + in.remaining() + " trailing bytes");
+    }
+  }
+
+  private static int length(final ByteBuffer in) {
+    final long value = varint(in);
+    if (value > in.remaining()) {
+      throw new IllegalArgumentException("corrupt RI license value | length " + value);
+    }
+    return (int) value;
+  }
+
+  private static int reference(final ByteBuffer in, final String[] dictionary) {
+    final long value = varlong(in);
+    if (value >= dictionary.length) {
+      throw new IllegalArgumentException("corrupt RI license value | string " + value);
+    }
+    return (int) value;
+  }
+
+  private static int varint(final ByteBuffer in) {
+    final long value = varlong(in);
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("corrupt RI license value | index " + value);
+    }
+    return (int) value;
+  }
+
+  private static long varlong(final ByteBuffer in) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final byte b = in.get();
+      value |= (long) (b & 0x7f) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("corrupt RI license value | varint too long");
+  }
+
+  private static long zigzag(final ByteBuffer in) {
+    final long value = varlong(in);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static final class Output extends ByteArrayOutputStream {
+    Output(final int size) {
+      super(size);
+    }
+
+    void varint(final long value) {
+      long v = value;
+      while ((v & ~0x7fL) != 0) {
+        write((int) ((v & 0x7f) | 0x80));
+        v >>>= 7;
+      }
+      write((int) v);
+    }
+
+    void zigzag(final long value) {
+      varint((value << 1) ^ (value >> 63));
+    }
+  }
+}
@@ -1,134 +1,47 @@
 package com.revenera.gcs.implementor.hcl;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.flexnet.external.type.*;
 import com.flexnet.external.webservice.keygenerator.LicGeneratorException;
 import com.revenera.gcs.Application;
 import com.revenera.gcs.implementor.AbstractImplementor;
+import com.revenera.gcs.implementor.Consolidation;
+import com.revenera.gcs.signer.LicenseSigner;
+import com.revenera.gcs.signer.LicenseSigners;
+import com.revenera.gcs.signer.SignatureCache;
+import com.revenera.gcs.signer.SignerExecutor;
+import com.revenera.gcs.signer.SignerProcess;
+import com.revenera.gcs.utils.Diagnostics;
 import com.revenera.gcs.utils.GeneratorImplementor;
 import com.revenera.gcs.utils.Log;
-import com.revenera.gcs.utils.Utils;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
-
-import javax.xml.datatype.XMLGregorianCalendar;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Path;
-import java.time.Instant;
+import com.revenera.gcs.utils.Settings;
+
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-class Resources {
-  final String filename;
-  final Path directory;
-  final Path input;
-  final Path executable;
-
-  Resources() {
-    this.filename = "raw." + Instant.now().toString().replace(":", ".").replace("-", ".");
-
-    // working directory
-    this.directory = Application.getInstance().getResourcePath("licenses");
-
-    // input file for signer
-    this.input = Application.getInstance().getResourcePath("licenses", filename);
-
-    // path to signer
-    this.executable = Application.getInstance().getResourcePath("executable", "Test.exe");
-
-  }
-}
+@GeneratorImplementor(technology = "RI")
+public class RevenueIntelligenceLicenseGenerator extends AbstractImplementor {
 
-class FeatureLine {
-  @JsonIgnore
-  public String key() {
-    return String.format("%s|%s|%d|%s", this.featureName, this.featureVersion, this.expirationDate, this.ipAddress);
-  }
+  /** add the signature of the feature lines as a Signature file, -Drevenera.ri.signature (default false) */
+  static final boolean signature = Settings.getBoolean("revenera.ri.signature", false);
 
-  static long toLong(final XMLGregorianCalendar date) {
-    return date == null ? 0L : date.toGregorianCalendar().getTime().getTime();
-  }
+  private final Diagnostics.Element signerDiagnostics;
 
-  public String featureName;
-  public String featureVersion;
-  public long featureCount;
-  public long expirationDate;
-  public String ipAddress;
+  public RevenueIntelligenceLicenseGenerator() {
+    final Diagnostics diagnostics = Application.getInstance().getDiagnostics();
 
-  public FeatureLine() {
-  }
+    this.signerDiagnostics = diagnostics.element(RevenueIntelligenceLicenseGenerator.class, "signer");
 
-  public boolean hashSubnetMask() {
-    return StringUtils.isNotEmpty(this.ipAddress);
-  }
+    diagnostics.gauge("signer_processes_running", SignerProcess::getRunning);
 
-  public static FeatureLine create(final com.flexnet.external.type.Feature feature, final XMLGregorianCalendar startDate, final XMLGregorianCalendar expiration, final String subnet) {
-    return new FeatureLine() {
-      {
-        this.featureName = feature.getName();
-        this.featureVersion = feature.getVersion();
-        this.featureCount = feature.getCount();
-        this.expirationDate = toLong(expiration);
-        this.ipAddress = subnet;
-      }
-    };
+    final ConsolidationCache cache = ConsolidationCache.instance();
+    diagnostics.gauge("consolidation_cache_hits", cache::getHits);
+    diagnostics.gauge("consolidation_cache_misses", cache::getMisses);
+    diagnostics.gauge("consolidation_cache_evictions", cache::getEvictions);
+    diagnostics.gauge("consolidation_cache_entries", cache::getEntries);
+    diagnostics.gauge("consolidation_cache_bytes", cache::getBytes);
   }
 
-  @Override
-  public String toString() {
-    final StringBuilder bfr = new StringBuilder();
-    bfr.append(featureName)
-       .append(" ")
-       .append(featureCount);
-
-
-    if (this.expirationDate > 0) {
-      bfr.append(" ")
-         .append(new Date(this.expirationDate).toInstant().toString());
-    }
-
-    if (hashSubnetMask()) {
-      bfr.append(" ")
-         .append(this.ipAddress);
-    }
-
-    return bfr.toString();
-  }
-
-  public void add(final FeatureLine value) {
-    if (key().equals(value.key())) {
-      this.featureCount += value.featureCount;
-    }
-  }
-
-  static final TypeReference<List<FeatureLine>> featureLineListType = new TypeReference<List<FeatureLine>>() {
-  };
-
-  public static String serailizeList(final List<FeatureLine> features) {
-    try {
-      return Utils.yaml_mapper.writeValueAsString(features);
-    }
-    catch (final Throwable t) {
-      throw new RuntimeException(t);
-    }
-  }
-
-  static List<FeatureLine>deserializeList(final String payload) {
-    try {
-      return Utils.yaml_mapper.readValue(payload, featureLineListType);
-    }
-    catch (final Throwable t) {
-      throw new RuntimeException(t);
-    }
-  }
-}
-
-@GeneratorImplementor(technology = "RI")
-public class RevenueIntelligenceLicenseGenerator extends AbstractImplementor {
-
   @Override
   public String technologyName() {
     return "Revenue Intelligence License Technology";
@@ -145,41 +58,25 @@ public class RevenueIntelligenceLicenseGenerator extends AbstractImplementor {
     SUBNET_MASK
   }
 
+  /**
+   * @return the signature of the lines, from the signature cache or by the signer configured for RI on a signing
+   * thread
+   */
   private String signLicense(final List<String> lines) {
     logger.in();
+    final Diagnostics.Timer timer = this.signerDiagnostics.start();
     try {
-      final Resources res = new Resources();
-
-      logger.yaml(Log.Level.debug, res);
-
-      FileUtils.writeLines(res.input.toFile(), StandardCharsets.UTF_8.name(), lines);
-
-      final ProcessBuilder pb = new ProcessBuilder(res.executable.toAbsolutePath().toString(), res.filename);
-      logger.log(Log.Level.debug, "created process");
-
-      pb.directory(res.directory.toFile());
+      final LicenseSigner signer = LicenseSigners.forTechnology(technologyId());
 
-      final Process proc = pb.start();
-      logger.log(Log.Level.debug, "started process");
-
-      final boolean status = proc.waitFor(30, TimeUnit.SECONDS);
-
-      if (status) {
-        logger.log(Log.Level.debug, "completed process");
-
-        return String.join("\n", lines);
-      }
-      else {
-        return "ERROR";
-      }
+      return SignatureCache.instance().sign(signer, lines, () -> SignerExecutor.instance().sign(signer, lines));
     }
-    catch (final Throwable e) {
+    catch (final RuntimeException e) {
+      timer.fail();
       logger.exception(e);
-
-      return e.getMessage();
+      throw e;
     }
     finally {
-      // cleanup
+      timer.close();
       logger.out();
     }
   }
@@ -211,12 +108,24 @@ public class RevenueIntelligenceLicenseGenerator extends AbstractImplementor {
 
     return new GeneratorResponse() {
       {
-        this.licenseFiles = Collections.singletonList(new LicenseFileMapItem() {
+        this.licenseFiles = new ArrayList<>();
+        this.licenseFiles.add(new LicenseFileMapItem() {
           {
             name = Strings.License.toString();
-            value = Utils.safeSerializeYaml(licenseElements);
+            value = FeatureLineEncoding.write(licenseElements);
           }
         });
+
+        if (signature) {
+          final String signed = signLicense(licenseElements.stream().map(FeatureLine::toString).collect(Collectors.toList()));
+
+          this.licenseFiles.add(new LicenseFileMapItem() {
+            {
+              name = Strings.Signature.toString();
+              value = signed;
+            }
+          });
+        }
 //        logger.yaml(Log.Level.debug, this.licenseFiles);
 
         this.complete = true;
@@ -227,30 +136,32 @@ public class RevenueIntelligenceLicenseGenerator extends AbstractImplementor {
   }
 
 
+  /**
+   * @return the aggregated License files of a fulfillment, from the consolidation cache when they are unchanged
+   */
+  private static FeatureAggregator.Partial partial(final FulfillmentRecord fid) {
+    final List<String> values = fid.getLicenseFiles().stream()
+                                   .filter(file -> file.getName().equals(Strings.License.toString()))
+                                   .map(file -> file.getValue().toString())
+                                   .collect(Collectors.toList());
+
+    return ConsolidationCache.instance().get(fid.getFulfillmentId(), values, () -> {
+      final FeatureAggregator aggregator = new FeatureAggregator();
+      values.forEach(value -> FeatureLineEncoding.aggregate(value, aggregator));
+      return aggregator.partial();
+    });
+  }
+
   @Override
   public ConsolidatedLicense consolidateFulfillments(final FulfillmentRecordSet request) throws LicGeneratorException {
 
     logger.array(Log.Level.debug, Application.getInstance().getBuildDate(), Application.getInstance().getBuildSequence());
 
-    final Map<String, FeatureLine> licenseElements = new TreeMap<>();
-
-    request.getFulfillments().stream()
-           .flatMap(fid -> fid.getLicenseFiles().stream())
-           .filter(file -> file.getName().equals(Strings.License.toString()))
-           .forEach(file -> {
-              final List<FeatureLine> lines = FeatureLine.deserializeList(file.getValue().toString());
-
-              lines.forEach(line -> {
-                final String key = line.key();
-
-                if (!licenseElements.containsKey(key)) {
-                  licenseElements.put(key, line);
-                }
-                else {
-                  licenseElements.get(key).featureCount += line.featureCount;
-                }
-              });
-            });
+    final FeatureAggregator licenseElements = Consolidation.aggregate(
+            request.getFulfillments(),
+            FeatureAggregator::new,
+            (aggregator, fid) -> aggregator.add(partial(fid)),
+            FeatureAggregator::merge);
 
     return new ConsolidatedLicense() {
       {
@@ -260,7 +171,7 @@ public class RevenueIntelligenceLicenseGenerator extends AbstractImplementor {
           {
             this.name = Strings.License.toString();
             // build intermediate format
-            this.value = licenseElements.values().stream()
+            this.value = licenseElements.lines().stream()
                                         .map(FeatureLine::toString)
                                         .collect(Collectors.joining("\n"));
           }
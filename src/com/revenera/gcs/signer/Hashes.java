@@ -0,0 +1,36 @@
+package com.revenera.gcs.signer;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * SHA-256 rendered in hex, for key versions and cache keys
+ */
+public final class Hashes {
+
+  private static final char[] digits = "0123456789abcdef".toCharArray();
+
+  private Hashes() {
+  }
+
+  public static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch (final GeneralSecurityException e) {
+      throw new SignerException("SHA-256 unavailable", e);
+    }
+  }
+
+  /**
+   * @param bytes leading bytes of the digest rendered, 32 for all of it
+   */
+  public static String hex(final byte[] digest, final int bytes) {
+    final char[] hex = new char[bytes * 2];
+    for (int i = 0; i < bytes; i++) {
+      hex[2 * i] = digits[(digest[i] >> 4) & 0xf];
+      hex[2 * i + 1] = digits[digest[i] & 0xf];
+    }
+    return new String(hex);
+  }
+}
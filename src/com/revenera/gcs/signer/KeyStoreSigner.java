@@ -0,0 +1,184 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Signs in process with java.security, a private key from a keystore under WEB-INF, no process involved.
+ *
+ * The signature covers the lines joined by '\n' in UTF-8 and is returned in Base64. The algorithm follows the
+ * key, SHA256withECDSA for EC, Ed25519 for EdDSA (on JVMs that have it) and SHA256withRSA for RSA.
+ *
+ * settings (system properties):
+ *   revenera.signer.keystore            keystore under WEB-INF, PKCS12 or JKS (default signer.p12)
+ *   revenera.signer.keystore.password   keystore and key password (default empty)
+ *   revenera.signer.key.alias           alias of the signing key (default license)
+ *   revenera.signer.algorithm           signature algorithm, overrides the one following the key
+ *   revenera.signer.key.generate        EC | Ed25519, generate a throwaway key when there is no keystore, for
+ *                                       development and benchmarks only (default off)
+ */
+public final class KeyStoreSigner implements LicenseSigner {
+
+  private static final Log logger = Log.create(KeyStoreSigner.class);
+
+  private final PrivateKey key;
+  private final PublicKey publicKey;
+  private final String algorithm;
+  private final String keyId;
+
+  /** Signature instances are not thread safe, one per thread */
+  private final ThreadLocal<Signature> signatures;
+
+  public KeyStoreSigner() {
+    this(load());
+  }
+
+  KeyStoreSigner(final KeyPair pair) {
+    this.key = pair.getPrivate();
+    this.publicKey = pair.getPublic();
+    this.algorithm = Settings.get("revenera.signer.algorithm", algorithm(this.key));
+    this.keyId = fingerprint(this.publicKey);
+
+    this.signatures = ThreadLocal.withInitial(() -> {
+      try {
+        final Signature signature = Signature.getInstance(this.algorithm);
+        signature.initSign(this.key);
+        return signature;
+      }
+      catch (final GeneralSecurityException e) {
+        throw new SignerException("signature algorithm unavailable | " + this.algorithm, e);
+      }
+    });
+
+    // fail at startup rather than on the first license
+    this.signatures.get();
+
+    logger.array(Log.Level.info, "keystore signer", this.algorithm, this.keyId);
+  }
+
+  private static KeyPair load() {
+    final Path keystore = Application.getInstance().getResourcePath(Settings.get("revenera.signer.keystore", "signer.p12"));
+    final char[] password = Settings.get("revenera.signer.keystore.password", "").toCharArray();
+    final String alias = Settings.get("revenera.signer.key.alias", "license");
+
+    try {
+      if (!Files.exists(keystore)) {
+        final String generate = Settings.get("revenera.signer.key.generate", "");
+        if (generate.isEmpty()) {
+          throw new SignerException("signer keystore not found | " + keystore);
+        }
+
+        logger.array(Log.Level.warning, "signer keystore not found, signing with a throwaway key", keystore, generate);
+        return generate(generate);
+      }
+
+      final KeyStore store = KeyStore.getInstance(keystore.toString().endsWith(".jks") ? "JKS" : "PKCS12");
+      try (final InputStream in = Files.newInputStream(keystore)) {
+        store.load(in, password);
+      }
+
+      final Key key = store.getKey(alias, password);
+      final Certificate certificate = store.getCertificate(alias);
+      if (!(key instanceof PrivateKey) || certificate == null) {
+        throw new SignerException("no private key and certificate in the signer keystore | " + keystore + " | " + alias);
+      }
+      return new KeyPair(certificate.getPublicKey(), (PrivateKey) key);
+    }
+    catch (final SignerException e) {
+      throw e;
+    }
+    catch (final Exception e) {
+      throw new SignerException("signer keystore unreadable | " + keystore + " | " + e.getMessage(), e);
+    }
+  }
+
+  static KeyPair generate(final String algorithm) throws GeneralSecurityException {
+    if ("EC".equalsIgnoreCase(algorithm)) {
+      final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+      generator.initialize(new ECGenParameterSpec("secp256r1"));
+      return generator.generateKeyPair();
+    }
+    return KeyPairGenerator.getInstance(algorithm).generateKeyPair();
+  }
+
+  private static String algorithm(final PrivateKey key) {
+    switch (key.getAlgorithm()) {
+      case "EC":
+        return "SHA256withECDSA";
+      case "EdDSA":
+      case "Ed25519":
+        return "Ed25519";
+      case "RSA":
+        return "SHA256withRSA";
+      default:
+        throw new SignerException("no default signature algorithm for a " + key.getAlgorithm() + " key, set revenera.signer.algorithm");
+    }
+  }
+
+  /**
+   * @return the first 8 bytes of the SHA-256 of the encoded public key, in hex
+   */
+  private static String fingerprint(final PublicKey key) {
+    return Hashes.hex(Hashes.sha256().digest(key.getEncoded()), 8);
+  }
+
+  @Override
+  public String sign(final List<String> lines) {
+    final Signature signature = this.signatures.get();
+    try {
+      signature.update(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(signature.sign());
+    }
+    catch (final GeneralSecurityException e) {
+      this.signatures.remove();
+      throw new SignerException("signing failed | " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @return true when the signature is this signer's for the lines
+   */
+  public boolean verify(final List<String> lines, final String signed) {
+    try {
+      final Signature signature = Signature.getInstance(this.algorithm);
+      signature.initVerify(this.publicKey);
+      signature.update(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+      return signature.verify(Base64.getDecoder().decode(signed));
+    }
+    catch (final GeneralSecurityException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  public String getKeyId() {
+    return this.keyId;
+  }
+
+  @Override
+  public String keyVersion() {
+    return "keystore:" + this.algorithm + ":" + this.keyId;
+  }
+
+  @Override
+  public String describe() {
+    return "keystore | " + this.algorithm + " | " + this.keyId;
+  }
+}
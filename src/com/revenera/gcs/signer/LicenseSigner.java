@@ -0,0 +1,42 @@
+package com.revenera.gcs.signer;
+
+import java.util.List;
+
+/**
+ * Signs the lines of a license. Implementations are shared by all requests of a technology and must be thread
+ * safe, see {@link LicenseSigners} for how one is chosen.
+ *
+ * A custom backend is a public class with a public no-argument constructor, named in place of a built-in one.
+ */
+public interface LicenseSigner {
+
+  /**
+   * @param lines the license lines, in order
+   * @return the signature, or the signed license, as the signer renders it
+   * @throws SignerException the lines could not be signed
+   */
+  String sign(List<String> lines);
+
+  /**
+   * sign by a deadline, a backend that can stops signing at it rather than at its own timeout
+   *
+   * @param lines the license lines, in order
+   * @param deadlineNanos {@link System#nanoTime()} by which the lines are signed
+   * @return the signature, or the signed license, as the signer renders it
+   * @throws SignerException the lines could not be signed
+   */
+  default String sign(final List<String> lines, final long deadlineNanos) {
+    return sign(lines);
+  }
+
+  /**
+   * @return identifies the key signatures are made with, changes when the key does, so that signatures cached
+   * for a previous key are not served
+   */
+  String keyVersion();
+
+  /**
+   * @return a short description for the logs
+   */
+  String describe();
+}
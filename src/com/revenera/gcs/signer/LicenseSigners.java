@@ -0,0 +1,75 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link LicenseSigner} of each technology, created on first use and kept.
+ *
+ * A backend is process (the signer executable), keystore (in process, see {@link KeyStoreSigner}) or the class
+ * name of a custom {@link LicenseSigner}. The signers are not cached, callers look the lines up in the
+ * {@link SignatureCache} first and sign the misses, on a {@link SignerExecutor} thread.
+ *
+ * settings (system properties):
+ *   revenera.signer.backend                backend of the technologies not configured (default process)
+ *   revenera.signer.backend.<technology>   backend of one technology, e.g. revenera.signer.backend.RI=keystore
+ */
+public final class LicenseSigners {
+
+  private static final Log logger = Log.create(LicenseSigners.class);
+
+  public enum Backend {
+    process,
+    keystore
+  }
+
+  private static final ConcurrentMap<String, LicenseSigner> signers = new ConcurrentHashMap<>();
+
+  private LicenseSigners() {
+  }
+
+  /**
+   * @param technology technology id, as in {@link com.revenera.gcs.utils.GeneratorImplementor}
+   */
+  public static LicenseSigner forTechnology(final String technology) {
+    return signers.computeIfAbsent(technology, LicenseSigners::create);
+  }
+
+  private static LicenseSigner create(final String technology) {
+    final String backend = Settings.find("revenera.signer.backend." + technology)
+                                   .orElseGet(() -> Settings.get("revenera.signer.backend", Backend.process.name()));
+
+    final LicenseSigner signer = backend(backend);
+
+    logger.array(Log.Level.info, "license signer", technology, signer.describe());
+
+    return signer;
+  }
+
+  /**
+   * @param backend a {@link Backend} name or the class name of a {@link LicenseSigner}
+   */
+  public static LicenseSigner backend(final String backend) {
+    for (final Backend value : Backend.values()) {
+      if (value.name().equalsIgnoreCase(backend)) {
+        switch (value) {
+          case keystore:
+            return new KeyStoreSigner();
+          case process:
+          default:
+            return new ProcessSigner();
+        }
+      }
+    }
+
+    try {
+      return Class.forName(backend).asSubclass(LicenseSigner.class).getDeclaredConstructor().newInstance();
+    }
+    catch (final ReflectiveOperationException | ClassCastException e) {
+      throw new SignerException("unknown license signer backend | " + backend, e);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Settings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The external signer executable, through the {@link SignerPool} or a {@link SignerProcess} per license.
+ *
+ * The key the executable signs with is not visible from here, its version is the executable's own hash unless
+ * -Drevenera.signer.key.version names it, which it has to when the key changes without the executable. The
+ * derived version also names the format of the signer's input, so that signatures cached over another format
+ * are not served.
+ */
+public final class ProcessSigner implements LicenseSigner {
+
+  /** format of {@link SignerProcess#input(List)}, part of the derived key version */
+  private static final String input_format = "lines";
+
+  private final String keyVersion;
+
+  public ProcessSigner() {
+    this.keyVersion = Settings.find("revenera.signer.key.version").orElseGet(() -> {
+      final Path executable = Application.getInstance().getResourcePath("executable", SignerPool.executable);
+      try {
+        return "process:" + SignerPool.executable + ":" + Hashes.hex(Hashes.sha256().digest(Files.readAllBytes(executable)), 8) + ":" + input_format;
+      }
+      catch (final IOException e) {
+        throw new SignerException("signer executable unreadable | " + executable, e);
+      }
+    });
+  }
+
+  @Override
+  public String sign(final List<String> lines) {
+    return sign(lines, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SignerPool.timeout));
+  }
+
+  @Override
+  public String sign(final List<String> lines, final long deadlineNanos) {
+    if (SignerPool.isEnabled()) {
+      return SignerPool.instance().sign(lines, deadlineNanos);
+    }
+    return SignerProcess.sign(Application.getInstance().getResourcePath("executable", SignerPool.executable),
+                              lines,
+                              SignerPool.remaining(deadlineNanos));
+  }
+
+  @Override
+  public String keyVersion() {
+    return this.keyVersion;
+  }
+
+  @Override
+  public String describe() {
+    return "process | " + SignerPool.executable + " | " + (SignerPool.isEnabled() ? SignerPool.workers + " workers" : SignerProcess.io);
+  }
+}
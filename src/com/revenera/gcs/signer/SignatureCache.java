@@ -0,0 +1,384 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Signatures already made, so that a retry, a preview or a re-fulfillment with the same lines is not signed
+ * again.
+ *
+ * The key is the SHA-256 of the signer's key version and the lines, so a new key never serves signatures made
+ * with the previous one. Signatures are kept in memory, least recently used evicted first past the budget, and
+ * optionally on disk where they survive restarts, the oldest files deleted first past the disk budget. Disk
+ * files are written to a temporary name and moved in place, a reader never sees half a signature.
+ *
+ * Concurrent requests for the same key are signed once, the others wait for that signature, at most the signer
+ * timeout. Failures are not cached.
+ *
+ * settings (system properties):
+ *   revenera.signer.cache.bytes        memory budget, 0 disables the cache (default 16MB)
+ *   revenera.signer.cache.directory    disk tier, off when not set
+ *   revenera.signer.cache.disk.bytes   disk budget (default 256MB)
+ */
+public final class SignatureCache {
+
+  private static final Log logger = Log.create(SignatureCache.class);
+
+  /** per entry overhead on top of the key and signature characters, map entry and strings */
+  private static final long entry_weight = 96;
+
+  private static final class Holder {
+    static final SignatureCache instance = new SignatureCache(
+            Settings.getLong("revenera.signer.cache.bytes", 16L << 20),
+            Settings.find("revenera.signer.cache.directory").map(Paths::get).orElse(null),
+            Settings.getLong("revenera.signer.cache.disk.bytes", 256L << 20));
+  }
+
+  public static SignatureCache instance() {
+    return Holder.instance;
+  }
+
+  private final long capacity;
+  private final Path directory;
+  private final long diskCapacity;
+
+  /** access ordered, the eldest entry is the least recently used */
+  private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+  private long weight;
+
+  private final ConcurrentMap<String, CompletableFuture<String>> signing = new ConcurrentHashMap<>();
+
+  private final AtomicLong diskWeight = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder diskHits = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  SignatureCache(final long bytes, final Path disk, final long diskBytes) {
+    this.capacity = Math.max(0, bytes);
+    this.directory = this.capacity > 0 ? disk : null;
+    this.diskCapacity = diskBytes;
+
+    if (this.directory != null) {
+      try {
+        Files.createDirectories(this.directory);
+        this.diskWeight.set(files().stream().mapToLong(SignatureCache::size).sum());
+      }
+      catch (final IOException e) {
+        throw new SignerException("signature cache directory unusable | " + this.directory, e);
+      }
+    }
+
+    logger.array(Log.Level.info, "signature cache", this.capacity, this.directory, this.diskWeight.get());
+
+    final Application application = Application.getInstance();
+    if (application != null && this.capacity > 0) {
+      application.getDiagnostics().gauge("signature_cache_hits", this.hits::sum);
+      application.getDiagnostics().gauge("signature_cache_disk_hits", this.diskHits::sum);
+      application.getDiagnostics().gauge("signature_cache_coalesced", this.coalesced::sum);
+      application.getDiagnostics().gauge("signature_cache_misses", this.misses::sum);
+      application.getDiagnostics().gauge("signature_cache_hit_ratio_percent", this::getHitRatioPercent);
+      application.getDiagnostics().gauge("signature_cache_evictions", this.evictions::sum);
+      application.getDiagnostics().gauge("signature_cache_entries", this::getEntries);
+      application.getDiagnostics().gauge("signature_cache_bytes", this::getBytes);
+      application.getDiagnostics().gauge("signature_cache_disk_bytes", this.diskWeight::get);
+    }
+  }
+
+  public boolean isEnabled() {
+    return this.capacity > 0;
+  }
+
+  /**
+   * @return the signer, behind this cache when it is enabled
+   */
+  public LicenseSigner wrap(final LicenseSigner signer) {
+    if (!isEnabled()) {
+      return signer;
+    }
+
+    return new LicenseSigner() {
+      @Override
+      public String sign(final List<String> lines) {
+        return SignatureCache.this.sign(signer, lines, () -> signer.sign(lines));
+      }
+
+      @Override
+      public String sign(final List<String> lines, final long deadlineNanos) {
+        return SignatureCache.this.sign(signer, lines, () -> signer.sign(lines, deadlineNanos));
+      }
+
+      @Override
+      public String keyVersion() {
+        return signer.keyVersion();
+      }
+
+      @Override
+      public String describe() {
+        return signer.describe() + " | cached";
+      }
+    };
+  }
+
+  /**
+   * looks the lines up on the calling thread, so that a hit costs no more than the lookup
+   *
+   * @param signer the signer, its key version is part of the key
+   * @param miss signs the lines on a miss, by the signer or on its behalf
+   * @return the cached signature of the lines
+   */
+  public String sign(final LicenseSigner signer, final List<String> lines, final Supplier<String> miss) {
+    if (!isEnabled()) {
+      return miss.get();
+    }
+
+    final String key = key(signer.keyVersion(), lines);
+
+    String signature = memory(key);
+    if (signature != null) {
+      this.hits.increment();
+      return signature;
+    }
+
+    final CompletableFuture<String> mine = new CompletableFuture<>();
+    final CompletableFuture<String> theirs = this.signing.putIfAbsent(key, mine);
+
+    if (theirs != null) {
+      this.coalesced.increment();
+      try {
+        return theirs.get(SignerPool.timeout, TimeUnit.MILLISECONDS);
+      }
+      catch (final ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new SignerException("signing failed | " + e.getCause().getMessage(), e.getCause());
+      }
+      catch (final TimeoutException e) {
+        throw new SignerException("not signed within " + SignerPool.timeout + "ms, waiting on the same lines", e);
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SignerException("interrupted waiting for the signer", e);
+      }
+    }
+
+    try {
+      signature = memory(key);
+      if (signature != null) {
+        this.hits.increment();
+      }
+      else if ((signature = disk(key)) != null) {
+        this.diskHits.increment();
+        remember(key, signature);
+      }
+      else {
+        this.misses.increment();
+        signature = miss.get();
+        remember(key, signature);
+        store(key, signature);
+      }
+
+      mine.complete(signature);
+      return signature;
+    }
+    catch (final RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    }
+    finally {
+      this.signing.remove(key, mine);
+    }
+  }
+
+  static String key(final String keyVersion, final List<String> lines) {
+    final MessageDigest digest = Hashes.sha256();
+
+    digest.update(keyVersion.getBytes(StandardCharsets.UTF_8));
+    for (final String line : lines) {
+      digest.update((byte) '\n');
+      digest.update(line.getBytes(StandardCharsets.UTF_8));
+    }
+    return Hashes.hex(digest.digest(), 32);
+  }
+
+  private String memory(final String key) {
+    synchronized (this.entries) {
+      return this.entries.get(key);
+    }
+  }
+
+  private void remember(final String key, final String signature) {
+    final long bytes = entry_weight + 2L * (key.length() + signature.length());
+    if (bytes > this.capacity) {
+      return;
+    }
+
+    synchronized (this.entries) {
+      final String previous = this.entries.put(key, signature);
+      this.weight += bytes - (previous == null ? 0 : entry_weight + 2L * (key.length() + previous.length()));
+
+      final Iterator<Map.Entry<String, String>> eldest = this.entries.entrySet().iterator();
+      while (this.weight > this.capacity && eldest.hasNext()) {
+        final Map.Entry<String, String> entry = eldest.next();
+        this.weight -= entry_weight + 2L * (entry.getKey().length() + entry.getValue().length());
+        eldest.remove();
+        this.evictions.increment();
+      }
+    }
+  }
+
+  private String disk(final String key) {
+    if (this.directory == null) {
+      return null;
+    }
+
+    try {
+      return new String(Files.readAllBytes(this.directory.resolve(key)), StandardCharsets.UTF_8);
+    }
+    catch (final NoSuchFileException e) {
+      return null;
+    }
+    catch (final IOException e) {
+      logger.exception(e);
+      return null;
+    }
+  }
+
+  private void store(final String key, final String signature) {
+    if (this.directory == null) {
+      return;
+    }
+
+    final Path file = this.directory.resolve(key);
+    final Path temporary = this.directory.resolve("." + key + "." + Thread.currentThread().getId() + ".tmp");
+    try {
+      final byte[] bytes = signature.getBytes(StandardCharsets.UTF_8);
+
+      Files.write(temporary, bytes);
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      if (this.diskWeight.addAndGet(bytes.length) > this.diskCapacity) {
+        trim();
+      }
+    }
+    catch (final IOException e) {
+      logger.exception(e);
+      try {
+        Files.deleteIfExists(temporary);
+      }
+      catch (final IOException ignored) {
+        // nothing more to do
+      }
+    }
+  }
+
+  private List<Path> files() throws IOException {
+    final List<Path> files = new ArrayList<>();
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "[0-9a-f]*")) {
+      stream.forEach(files::add);
+    }
+    return files;
+  }
+
+  private static long size(final Path file) {
+    try {
+      return Files.size(file);
+    }
+    catch (final IOException e) {
+      return 0;
+    }
+  }
+
+  private static long modified(final Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis();
+    }
+    catch (final IOException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * delete the oldest files until the disk tier is back under 90% of its budget
+   */
+  private synchronized void trim() throws IOException {
+    if (this.diskWeight.get() <= this.diskCapacity) {
+      return;
+    }
+
+    final List<Path> files = files();
+    files.sort(Comparator.comparingLong(SignatureCache::modified));
+
+    long total = files.stream().mapToLong(SignatureCache::size).sum();
+    for (final Path file : files) {
+      if (total <= this.diskCapacity * 9 / 10) {
+        break;
+      }
+      final long size = size(file);
+      if (Files.deleteIfExists(file)) {
+        total -= size;
+        this.evictions.increment();
+      }
+    }
+    this.diskWeight.set(total);
+  }
+
+  public long getHitRatioPercent() {
+    final long hit = this.hits.sum() + this.diskHits.sum() + this.coalesced.sum();
+    final long all = hit + this.misses.sum();
+    return all == 0 ? 0 : 100 * hit / all;
+  }
+
+  public long getEntries() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+
+  public long getBytes() {
+    synchronized (this.entries) {
+      return this.weight;
+    }
+  }
+
+  long getMisses() {
+    return this.misses.sum();
+  }
+
+  long getDiskHits() {
+    return this.diskHits.sum();
+  }
+
+  long getCoalesced() {
+    return this.coalesced.sum();
+  }
+}
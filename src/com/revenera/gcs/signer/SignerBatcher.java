@@ -0,0 +1,246 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Diagnostics;
+import com.revenera.gcs.utils.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent sign requests into batches, so that a burst of generateLicense calls costs a few
+ * worker round trips rather than one each.
+ *
+ * Requests wait in a queue. A dispatcher per worker takes the first one waiting, adds those queued behind it up
+ * to the batch size, waiting up to the window for more when there is one, and sends them to a worker as one
+ * batch. Answers are handed back to the callers through futures, a refused request only fails its own caller.
+ */
+final class SignerBatcher {
+
+  private static final Log logger = Log.create(SignerBatcher.class);
+
+  private static final class Pending {
+    final byte[] request;
+    final CompletableFuture<byte[]> future = new CompletableFuture<>();
+    final long enqueued = System.nanoTime();
+
+    Pending(final byte[] lines) {
+      this.request = lines;
+    }
+  }
+
+  private final SignerPool pool;
+  private final int size;
+  private final long window;
+
+  private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+  private final List<Thread> dispatchers = new ArrayList<>();
+
+  /** time requests wait in the queue, null without an application to report to */
+  private final Diagnostics.Element waits;
+
+  /** cumulative batch counts, batches of at most 1, 2, 4 ... requests up to the batch size */
+  private final int[] bounds;
+  private final LongAdder[] sizes;
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batched = new LongAdder();
+
+  private volatile boolean open = true;
+
+  /**
+   * @param batchSize most requests sent in one batch
+   * @param windowMicros time to wait for more requests once one is taken, 0 only takes those already queued
+   */
+  SignerBatcher(final SignerPool signers, final int dispatcherCount, final int batchSize, final long windowMicros) {
+    this.pool = signers;
+    this.size = Math.max(1, batchSize);
+    this.window = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+
+    int buckets = 1;
+    while ((1 << (buckets - 1)) < this.size) {
+      buckets++;
+    }
+    this.bounds = new int[buckets];
+    this.sizes = new LongAdder[buckets];
+    for (int i = 0; i < buckets; i++) {
+      this.bounds[i] = Math.min(1 << i, this.size);
+      this.sizes[i] = new LongAdder();
+    }
+
+    final Application application = Application.getInstance();
+    if (application != null) {
+      final Diagnostics diagnostics = application.getDiagnostics();
+
+      this.waits = diagnostics.element(SignerBatcher.class, "queue");
+
+      diagnostics.gauge("signer_batches", this.batches::sum);
+      diagnostics.gauge("signer_batch_requests", this.batched::sum);
+      diagnostics.gauge("signer_batch_queue", this.queue::size);
+      for (int i = 0; i < buckets; i++) {
+        final LongAdder bucket = this.sizes[i];
+        diagnostics.gauge("signer_batch_size_le_" + this.bounds[i], bucket::sum);
+      }
+    }
+    else {
+      this.waits = null;
+    }
+
+    logger.array(Log.Level.info, "signer batches", dispatcherCount, this.size, windowMicros);
+
+    for (int i = 0; i < dispatcherCount; i++) {
+      final Thread dispatcher = new Thread(this::dispatch, "revenera-signer-batch-" + i);
+      dispatcher.setDaemon(true);
+      dispatcher.start();
+      this.dispatchers.add(dispatcher);
+    }
+  }
+
+  CompletableFuture<byte[]> submit(final byte[] request) {
+    final Pending pending = new Pending(request);
+
+    if (!this.open) {
+      pending.future.completeExceptionally(new SignerException("signer pool is closed"));
+    }
+    else {
+      this.queue.add(pending);
+    }
+    return pending.future;
+  }
+
+  /**
+   * sign as part of whichever batch the request lands in, waiting at most the signer timeout
+   */
+  byte[] sign(final byte[] request, final long timeoutMillis) {
+    final CompletableFuture<byte[]> future = submit(request);
+    try {
+      return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    catch (final ExecutionException e) {
+      if (e.getCause() instanceof SignerException) {
+        throw (SignerException) e.getCause();
+      }
+      throw new SignerException("signing failed | " + e.getCause().getMessage(), e.getCause());
+    }
+    catch (final TimeoutException e) {
+      future.cancel(false);
+      throw new SignerException("not signed within " + timeoutMillis + "ms", e);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SignerException("interrupted waiting for the signer", e);
+    }
+  }
+
+  private void dispatch() {
+    final List<Pending> batch = new ArrayList<>(this.size);
+    final List<byte[]> requests = new ArrayList<>(this.size);
+
+    while (this.open) {
+      try {
+        final Pending first = this.queue.poll(250, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+
+        if (this.window > 0) {
+          final long deadline = System.nanoTime() + this.window;
+          while (batch.size() < this.size) {
+            final Pending next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+              break;
+            }
+            batch.add(next);
+          }
+        }
+        else {
+          this.queue.drainTo(batch, this.size - 1);
+        }
+
+        send(batch, requests);
+      }
+      catch (final InterruptedException e) {
+        break;
+      }
+      catch (final Throwable t) {
+        logger.exception(t);
+      }
+      finally {
+        batch.clear();
+        requests.clear();
+      }
+    }
+  }
+
+  private void send(final List<Pending> batch, final List<byte[]> requests) {
+    final long dispatched = System.nanoTime();
+
+    if (this.waits != null) {
+      batch.forEach(pending -> this.waits.record(dispatched - pending.enqueued));
+    }
+
+    // callers that gave up are not signed
+    batch.removeIf(pending -> pending.future.isDone());
+    if (batch.isEmpty()) {
+      return;
+    }
+    batch.forEach(pending -> requests.add(pending.request));
+
+    record(batch.size());
+
+    try {
+      final List<SignerWorker.Answer> answers = this.pool.call(requests);
+
+      for (int i = 0; i < batch.size(); i++) {
+        final SignerWorker.Answer answer = answers.get(i);
+
+        if (answer.ok) {
+          batch.get(i).future.complete(answer.body);
+        }
+        else {
+          batch.get(i).future.completeExceptionally(answer.refusal());
+        }
+      }
+    }
+    catch (final Throwable t) {
+      batch.forEach(pending -> pending.future.completeExceptionally(t));
+    }
+  }
+
+  private void record(final int count) {
+    this.batches.increment();
+    this.batched.add(count);
+
+    for (int i = 0; i < this.bounds.length; i++) {
+      if (count <= this.bounds[i]) {
+        this.sizes[i].increment();
+      }
+    }
+  }
+
+  /**
+   * stop dispatching, requests still queued fail
+   */
+  void close() {
+    this.open = false;
+
+    for (final Thread dispatcher : this.dispatchers) {
+      try {
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    for (Pending pending = this.queue.poll(); pending != null; pending = this.queue.poll()) {
+      pending.future.completeExceptionally(new SignerException("signer pool is closed"));
+    }
+  }
+}
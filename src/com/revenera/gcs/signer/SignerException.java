@@ -0,0 +1,16 @@
+package com.revenera.gcs.signer;
+
+/**
+ * A license could not be signed, the signer failed, timed out or was not available
+ */
+public class SignerException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public SignerException(final String message) {
+    super(message);
+  }
+
+  public SignerException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
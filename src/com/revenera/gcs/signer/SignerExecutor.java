@@ -0,0 +1,296 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Diagnostics;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs license signing on its own threads, so that a slow signer holds a bounded number of signing threads
+ * rather than every request thread of the container.
+ *
+ * At most the concurrency signs run at once and the queue holds those waiting for a thread. A sign is rejected
+ * as soon as it is submitted when the queue is full or when the queue ahead of it, at the recent average sign
+ * time, would take longer than its deadline, and it fails without being signed when its deadline passed while
+ * it waited. The signer is given the deadline, a signer process or a worker signing alone is killed by its
+ * watchdog when it passes. A sign still running at its deadline fails, the signer process it waits for is killed
+ * and its thread is interrupted.
+ *
+ * settings (system properties):
+ *   revenera.signer.concurrency   signs running at once (default the signer workers times the batch size, so that
+ *                                 every worker can be handed a full batch, 2 without workers)
+ *   revenera.signer.queue         signs waiting for a thread, more are rejected (default 64)
+ */
+public final class SignerExecutor {
+
+  private static final Log logger = Log.create(SignerExecutor.class);
+
+  private static SignerExecutor instance;
+
+  /**
+   * @return the executor, started on first use
+   */
+  public static synchronized SignerExecutor instance() {
+    if (instance == null) {
+      instance = new SignerExecutor(Settings.getInt("revenera.signer.concurrency", Math.max(2, SignerPool.workers * SignerPool.batch)),
+                                    Settings.getInt("revenera.signer.queue", 64));
+    }
+    return instance;
+  }
+
+  /**
+   * stop the executor if it was started
+   */
+  public static synchronized void shutdown() {
+    if (instance != null) {
+      instance.close();
+      instance = null;
+    }
+  }
+
+  private final class Sign implements Runnable {
+    final LicenseSigner signer;
+    final List<String> lines;
+    final long deadline;
+    final CompletableFuture<String> future = new CompletableFuture<>();
+
+    /** the thread signing, null while queued and once done */
+    private Thread runner;
+
+    Sign(final LicenseSigner licenseSigner, final List<String> license, final long deadlineNanos) {
+      this.signer = licenseSigner;
+      this.lines = license;
+      this.deadline = deadlineNanos;
+    }
+
+    @Override
+    public void run() {
+      if (this.future.isDone()) {
+        return;
+      }
+      if (System.nanoTime() - this.deadline > 0) {
+        SignerExecutor.this.expired.increment();
+        this.future.completeExceptionally(new SignerException("signing deadline passed in the queue"));
+        return;
+      }
+
+      synchronized (this) {
+        this.runner = Thread.currentThread();
+      }
+      SignerExecutor.this.active.incrementAndGet();
+
+      final long started = System.nanoTime();
+      try {
+        final String signed = this.signer.sign(this.lines, this.deadline);
+
+        average(System.nanoTime() - started);
+        SignerExecutor.this.completed.increment();
+        this.future.complete(signed);
+      }
+      catch (final Throwable t) {
+        this.future.completeExceptionally(t);
+      }
+      finally {
+        SignerExecutor.this.active.decrementAndGet();
+        synchronized (this) {
+          this.runner = null;
+          // an interrupt for this sign must not reach the next one
+          Thread.interrupted();
+        }
+      }
+    }
+
+    synchronized void interrupt() {
+      if (this.runner != null) {
+        SignerProcess.destroy(this.runner);
+        this.runner.interrupt();
+      }
+    }
+  }
+
+  private final int concurrency;
+  private final ThreadPoolExecutor executor;
+  private final ScheduledExecutorService alarms;
+
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+
+  /** moving average of the time a sign takes, 0 until one was made */
+  private volatile long average;
+
+  /** time signs waited to be submitted and signed, null without an application to report to */
+  private final Diagnostics.Element signs;
+
+  SignerExecutor(final int threads, final int queue) {
+    this.concurrency = Math.max(1, threads);
+
+    final AtomicInteger count = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(this.concurrency,
+                                           this.concurrency,
+                                           0,
+                                           TimeUnit.MILLISECONDS,
+                                           new ArrayBlockingQueue<>(Math.max(1, queue)),
+                                           runnable -> {
+                                             final Thread thread = new Thread(runnable, "revenera-signer-" + count.getAndIncrement());
+                                             thread.setDaemon(true);
+                                             return thread;
+                                           });
+
+    this.alarms = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "revenera-signer-deadlines");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    final Application application = Application.getInstance();
+    if (application != null) {
+      final Diagnostics diagnostics = application.getDiagnostics();
+
+      this.signs = diagnostics.element(SignerExecutor.class, "sign");
+
+      diagnostics.gauge("signer_executor_queue", this::getQueued);
+      diagnostics.gauge("signer_executor_active", this.active::get);
+      diagnostics.gauge("signer_executor_completed", this.completed::sum);
+      diagnostics.gauge("signer_executor_rejected", this.rejected::sum);
+      diagnostics.gauge("signer_executor_expired", this.expired::sum);
+      diagnostics.gauge("signer_executor_timeouts", this.timeouts::sum);
+      diagnostics.gauge("signer_executor_average_us", () -> TimeUnit.NANOSECONDS.toMicros(this.average));
+    }
+    else {
+      this.signs = null;
+    }
+
+    logger.array(Log.Level.info, "signer executor", this.concurrency, queue);
+  }
+
+  private void average(final long nanos) {
+    final long current = this.average;
+    this.average = current == 0 ? nanos : current + (nanos - current) / 8;
+  }
+
+  /**
+   * @return the signature of the lines, failed with a {@link SignerException} when the sign is rejected or not
+   * done by the deadline
+   */
+  public CompletableFuture<String> submit(final LicenseSigner signer, final List<String> lines, final long timeoutMillis) {
+    final long submitted = System.nanoTime();
+    final long timeout = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+    // the signs ahead, in rounds of the concurrency, and this one
+    final long wait = (getQueued() / this.concurrency + 1) * this.average;
+    if (wait > timeout) {
+      this.rejected.increment();
+      return failed(new SignerException("signer busy, " + getQueued() + " signs queued would take "
+                                        + TimeUnit.NANOSECONDS.toMillis(wait) + "ms, longer than " + timeoutMillis + "ms"));
+    }
+
+    final Sign sign = new Sign(signer, lines, submitted + timeout);
+    try {
+      this.executor.execute(sign);
+    }
+    catch (final RejectedExecutionException e) {
+      this.rejected.increment();
+      return failed(new SignerException("signer busy, " + getQueued() + " signs queued", e));
+    }
+
+    final ScheduledFuture<?> alarm = this.alarms.schedule(() -> {
+      if (sign.future.completeExceptionally(new SignerException("not signed within " + timeoutMillis + "ms"))) {
+        this.timeouts.increment();
+        sign.interrupt();
+      }
+    }, timeout, TimeUnit.NANOSECONDS);
+
+    sign.future.whenComplete((signed, failure) -> {
+      alarm.cancel(false);
+      if (this.signs != null) {
+        this.signs.record(System.nanoTime() - submitted);
+      }
+    });
+
+    return sign.future;
+  }
+
+  /**
+   * @return the signature of the lines, waiting at most the signer timeout
+   */
+  public String sign(final LicenseSigner signer, final List<String> lines) {
+    try {
+      return submit(signer, lines, SignerPool.timeout).get();
+    }
+    catch (final ExecutionException e) {
+      if (e.getCause() instanceof SignerException) {
+        throw (SignerException) e.getCause();
+      }
+      throw new SignerException("signing failed | " + e.getCause().getMessage(), e.getCause());
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SignerException("interrupted waiting for the signer", e);
+    }
+  }
+
+  private static CompletableFuture<String> failed(final SignerException e) {
+    final CompletableFuture<String> future = new CompletableFuture<>();
+    future.completeExceptionally(e);
+    return future;
+  }
+
+  public int getQueued() {
+    return this.executor.getQueue().size();
+  }
+
+  long getRejected() {
+    return this.rejected.sum();
+  }
+
+  long getTimeouts() {
+    return this.timeouts.sum();
+  }
+
+  long getExpired() {
+    return this.expired.sum();
+  }
+
+  /**
+   * stop signing, signs still queued fail
+   */
+  void close() {
+    final List<Runnable> queued = new ArrayList<>();
+    this.executor.getQueue().drainTo(queued);
+    this.executor.shutdown();
+
+    for (final Runnable sign : queued) {
+      ((Sign) sign).future.completeExceptionally(new SignerException("signer executor is closed"));
+    }
+
+    try {
+      if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        this.executor.shutdownNow();
+      }
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.executor.shutdownNow();
+    }
+    finally {
+      this.alarms.shutdownNow();
+    }
+  }
+}
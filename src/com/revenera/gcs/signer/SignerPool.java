@@ -0,0 +1,371 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived signer processes, so that signing a license costs a round trip over a pipe instead of starting a
+ * process.
+ *
+ * Idle workers wait in a queue and a request borrows one for the length of its call. A worker that crashed,
+ * timed out or broke the protocol is killed and replaced in the background. Idle workers are health checked
+ * periodically, and the pool is topped up to its size at the same time when a restart failed. Concurrent
+ * requests are coalesced into batches by a {@link SignerBatcher} unless the batch size is 1.
+ *
+ * The pool is opt-in: the executable has to speak the worker protocol of {@link SignerWorker}, which signer.sh
+ * does and Test.exe does not. Without workers every license is signed by a {@link SignerProcess} of its own.
+ *
+ * settings (system properties):
+ *   revenera.signer.executable       signer under WEB-INF/executable (default Test.exe on Windows, signer.sh elsewhere)
+ *   revenera.signer.workers          signer processes kept running, 0 starts a process per license (default 0)
+ *   revenera.signer.timeout.ms       time a request may wait for a worker and for its answer (default 30000)
+ *   revenera.signer.health.seconds   health check interval (default 30)
+ *   revenera.signer.batch.size       most requests sent to a worker at once, 1 disables batching (default 16)
+ *   revenera.signer.batch.window.us  time a batch waits for more requests, 0 only takes those queued (default 0)
+ */
+public final class SignerPool {
+
+  private static final Log logger = Log.create(SignerPool.class);
+
+  public static final String executable = Settings.get("revenera.signer.executable", SystemUtils.IS_OS_WINDOWS ? "Test.exe" : "signer.sh");
+  public static final int workers = Settings.getInt("revenera.signer.workers", 0);
+  public static final long timeout = Math.max(1, Settings.getLong("revenera.signer.timeout.ms", 30000));
+  public static final int batch = Math.max(1, Settings.getInt("revenera.signer.batch.size", 16));
+
+  private static final long health_timeout = Math.min(timeout, 5000);
+
+  private static SignerPool instance;
+
+  /**
+   * @return false when a signer process is started per license
+   */
+  public static boolean isEnabled() {
+    return workers > 0;
+  }
+
+  /**
+   * @return the pool, started on first use
+   */
+  public static synchronized SignerPool instance() {
+    if (instance == null) {
+      instance = new SignerPool(Application.getInstance().getResourcePath("executable", executable),
+                                workers,
+                                batch,
+                                Settings.getLong("revenera.signer.batch.window.us", 0));
+    }
+    return instance;
+  }
+
+  /**
+   * stop the pool if it was started
+   */
+  public static synchronized void shutdown() {
+    if (instance != null) {
+      instance.close();
+      instance = null;
+    }
+  }
+
+  /**
+   * @return the command line running a signer, scripts lose their executable bit when the war is unpacked
+   */
+  public static List<String> command(final Path signer) {
+    final String path = signer.toAbsolutePath().toString();
+
+    return path.endsWith(".sh") ? Arrays.asList("bash", path) : Collections.singletonList(path);
+  }
+
+  private static ThreadFactory daemon(final String name) {
+    return runnable -> {
+      final Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private final List<String> command;
+  private final File directory;
+  private final int size;
+
+  private final LinkedBlockingQueue<SignerWorker> idle = new LinkedBlockingQueue<>();
+  private final Set<SignerWorker> running = ConcurrentHashMap.newKeySet();
+
+  /** kills workers that do not answer in time, never blocks */
+  private final ScheduledExecutorService alarms = Executors.newSingleThreadScheduledExecutor(daemon("revenera-signer-alarms"));
+
+  /** writes the batches too large for a pipe while the answers are read */
+  private final ExecutorService writers = Executors.newCachedThreadPool(daemon("revenera-signer-writer"));
+
+  /** starts, restarts and health checks workers */
+  private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(daemon("revenera-signer-maintenance"));
+
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong restarts = new AtomicLong();
+
+  /** null when requests are sent one by one */
+  private final SignerBatcher batcher;
+
+  private volatile boolean open = true;
+
+  SignerPool(final Path signer, final int workerCount, final int batchSize, final long windowMicros) {
+    this.command = command(signer);
+    this.directory = signer.toAbsolutePath().getParent().toFile();
+    this.size = Math.max(1, workerCount);
+
+    logger.array(Log.Level.info, "signer pool", this.command, this.size, timeout);
+
+    fill();
+
+    final long interval = Math.max(1, Settings.getLong("revenera.signer.health.seconds", 30));
+    this.maintenance.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.SECONDS);
+
+    final Application application = Application.getInstance();
+    if (application != null) {
+      application.getDiagnostics().gauge("signer_workers", this.running::size);
+      application.getDiagnostics().gauge("signer_workers_idle", this.idle::size);
+      application.getDiagnostics().gauge("signer_requests", this.requests::get);
+      application.getDiagnostics().gauge("signer_failures", this.failures::get);
+      application.getDiagnostics().gauge("signer_timeouts", this.timeouts::get);
+      application.getDiagnostics().gauge("signer_restarts", this.restarts::get);
+    }
+
+    this.batcher = batchSize > 1 ? new SignerBatcher(this, this.size, batchSize, windowMicros) : null;
+  }
+
+  /**
+   * @param lines the license lines, sent as {@link SignerProcess#input(List)}
+   * @return what the signer answered
+   */
+  public String sign(final List<String> lines) {
+    return sign(lines, deadline());
+  }
+
+  /**
+   * @param deadline {@link System#nanoTime()} by which the lines are signed
+   */
+  public String sign(final List<String> lines, final long deadline) {
+    return new String(sign(SignerProcess.input(lines), deadline), StandardCharsets.UTF_8);
+  }
+
+  public byte[] sign(final byte[] request) {
+    return sign(request, deadline());
+  }
+
+  /**
+   * a batched request waits for its batch until the deadline, the batch is given the signer timeout, a request
+   * sent alone is given the deadline
+   */
+  public byte[] sign(final byte[] request, final long deadline) {
+    if (this.batcher != null) {
+      return this.batcher.sign(request, remaining(deadline));
+    }
+    return call(Collections.singletonList(request), deadline).get(0).get();
+  }
+
+  /**
+   * one round trip to a worker, a batch when there are several requests, within the signer timeout
+   *
+   * @return the answers, in the order of the requests
+   */
+  List<SignerWorker.Answer> call(final List<byte[]> batch) {
+    return call(batch, deadline());
+  }
+
+  /**
+   * @param deadline {@link System#nanoTime()} by which the worker answers, or is killed
+   */
+  private List<SignerWorker.Answer> call(final List<byte[]> batch, final long deadline) {
+    if (!this.open) {
+      throw new SignerException("signer pool is closed");
+    }
+
+    this.requests.addAndGet(batch.size());
+
+    final SignerWorker worker = borrow(deadline);
+    try {
+      final List<SignerWorker.Answer> answers = worker.call(batch, remaining(deadline), this.alarms, this.writers);
+      release(worker);
+
+      answers.stream().filter(answer -> !answer.ok).forEach(answer -> this.failures.incrementAndGet());
+      return answers;
+    }
+    catch (final TimeoutException e) {
+      this.timeouts.incrementAndGet();
+      retire(worker);
+      throw new SignerException(e.getMessage(), e);
+    }
+    catch (final IOException | RuntimeException e) {
+      this.failures.incrementAndGet();
+      retire(worker);
+      throw new SignerException("signer worker " + worker.getId() + " failed | " + e.getMessage(), e);
+    }
+  }
+
+  private static long deadline() {
+    return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+  }
+
+  /**
+   * @return the milliseconds left until the deadline, at least 1
+   */
+  static long remaining(final long deadline) {
+    return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+  }
+
+  /**
+   * take an idle worker, replacing the ones that died while idle
+   */
+  private SignerWorker borrow(final long deadline) {
+    try {
+      while (true) {
+        if (this.running.isEmpty()) {
+          this.failures.incrementAndGet();
+          this.maintenance.execute(this::fill);
+          throw new SignerException("no signer worker running | " + this.command);
+        }
+
+        final SignerWorker worker = this.idle.poll(remaining(deadline), TimeUnit.MILLISECONDS);
+
+        if (worker == null) {
+          this.timeouts.incrementAndGet();
+          throw new SignerException("no signer worker available within " + timeout + "ms");
+        }
+        if (worker.isAlive()) {
+          return worker;
+        }
+        retire(worker);
+      }
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SignerException("interrupted waiting for a signer worker", e);
+    }
+  }
+
+  private void release(final SignerWorker worker) {
+    if (!this.open || !worker.isAlive()) {
+      retire(worker);
+    }
+    else {
+      this.idle.offer(worker);
+    }
+  }
+
+  /**
+   * kill a worker and start another one in its place
+   */
+  private void retire(final SignerWorker worker) {
+    if (this.running.remove(worker)) {
+      logger.array(Log.Level.warning, "signer worker retired", worker.getId(), worker.getCalls());
+    }
+    worker.close();
+
+    if (this.open) {
+      this.restarts.incrementAndGet();
+      this.maintenance.execute(this::fill);
+    }
+  }
+
+  /**
+   * start workers until the pool has its size, a worker only joins once it answered a health check
+   */
+  private void fill() {
+    while (this.open && this.running.size() < this.size) {
+      try {
+        final SignerWorker worker = new SignerWorker(this.command, this.directory);
+        if (!worker.ping(health_timeout, this.alarms)) {
+          worker.close();
+          throw new IOException("signer worker " + worker.getId() + " failed its first health check");
+        }
+        this.running.add(worker);
+        this.idle.offer(worker);
+
+        logger.array(Log.Level.debug, "signer worker started", worker.getId());
+      }
+      catch (final Throwable t) {
+        this.failures.incrementAndGet();
+        logger.exception(t);
+        return;
+      }
+    }
+  }
+
+  /**
+   * health check the workers idle at this moment, then top up the pool
+   */
+  private void check() {
+    for (int i = this.idle.size(); i > 0 && this.open; i--) {
+      final SignerWorker worker = this.idle.poll();
+      if (worker == null) {
+        break;
+      }
+
+      if (worker.ping(health_timeout, this.alarms)) {
+        release(worker);
+      }
+      else {
+        retire(worker);
+      }
+    }
+    fill();
+  }
+
+  int getRunning() {
+    return this.running.size();
+  }
+
+  int getIdle() {
+    return this.idle.size();
+  }
+
+  long getRestarts() {
+    return this.restarts.get();
+  }
+
+  long getTimeouts() {
+    return this.timeouts.get();
+  }
+
+  /**
+   * stop the signer processes, requests in flight complete or fail
+   */
+  void close() {
+    if (this.batcher != null) {
+      this.batcher.close();
+    }
+
+    this.open = false;
+
+    this.maintenance.shutdownNow();
+
+    for (SignerWorker worker = this.idle.poll(); worker != null; worker = this.idle.poll()) {
+      this.running.remove(worker);
+      worker.close();
+    }
+
+    this.alarms.shutdown();
+    this.writers.shutdown();
+  }
+}
@@ -0,0 +1,234 @@
+package com.revenera.gcs.signer;
+
+import com.revenera.gcs.Application;
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a signer per license, when no {@link SignerPool} is kept (revenera.signer.workers=0).
+ *
+ *   pipe   the lines are written to the signer's stdin, with "-" as its argument, and the signed license is
+ *          what it writes to stdout, nothing touches the disk
+ *   file   the lines are written to a unique raw.*.lic file whose name is the argument, and the signed license
+ *          is the file the signer writes next to it, the input name with .sign appended as Test.exe does. both
+ *          are deleted once signed
+ *
+ * Both modes, and the {@link SignerPool}, give the signer the same bytes, see {@link #input(List)}, so a license
+ * signs the same whichever way it reaches the signer.
+ *
+ * The signer is expected to read its input before writing its answer, and is killed when it does not exit in
+ * time. Input and output files left behind by a crash, and the raw.* files earlier versions never deleted, are
+ * swept from the directory on first use.
+ *
+ * settings (system properties):
+ *   revenera.signer.io          pipe | file (default file on Windows, where Test.exe takes a file, pipe elsewhere)
+ *   revenera.signer.directory   input files and working directory of the signer, may be a tmpfs (default WEB-INF/licenses)
+ */
+public final class SignerProcess {
+
+  private static final Log logger = Log.create(SignerProcess.class);
+
+  public enum Io {
+    pipe,
+    file
+  }
+
+  public static final Io io = Settings.getEnum("revenera.signer.io", SystemUtils.IS_OS_WINDOWS ? Io.file : Io.pipe);
+
+  private static final String input_prefix = "raw.";
+  private static final String output_suffix = ".sign";
+
+  /** signer processes currently running */
+  private static final AtomicInteger running = new AtomicInteger();
+
+  /** the signer process each signing thread waits for */
+  private static final Map<Thread, Process> processes = new ConcurrentHashMap<>();
+
+  private static final class Holder {
+    static final ScheduledExecutorService alarms = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "revenera-signer-process-alarms");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    static final Path directory = sweep(Settings.find("revenera.signer.directory")
+                                                .map(Paths::get)
+                                                .orElseGet(() -> Application.getInstance().getResourcePath("licenses")));
+  }
+
+  private SignerProcess() {
+  }
+
+  public static int getRunning() {
+    return running.get();
+  }
+
+  /**
+   * kill the signer process the thread waits for, if any, a thread blocked reading its output is not woken by
+   * an interrupt
+   */
+  static void destroy(final Thread thread) {
+    final Process process = processes.get(thread);
+    if (process != null) {
+      process.destroyForcibly();
+    }
+  }
+
+  /**
+   * create the directory, and delete the input and output files older than twice the signer timeout
+   */
+  private static Path sweep(final Path directory) {
+    try {
+      Files.createDirectories(directory);
+
+      final long before = System.currentTimeMillis() - 2 * SignerPool.timeout;
+      int deleted = 0;
+
+      try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, input_prefix + "*")) {
+        for (final Path file : files) {
+          if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toMillis() < before) {
+            Files.deleteIfExists(file);
+            deleted++;
+          }
+        }
+      }
+      logger.array(Log.Level.info, "signer directory", directory, io, deleted);
+    }
+    catch (final IOException e) {
+      logger.exception(e);
+    }
+    return directory;
+  }
+
+  /**
+   * @return what a signer signs: every line in UTF-8 followed by the platform line separator, the file Test.exe
+   *         has always been given
+   */
+  public static byte[] input(final List<String> lines) {
+    final StringBuilder input = new StringBuilder();
+    for (final String line : lines) {
+      input.append(line).append(System.lineSeparator());
+    }
+    return input.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the signed license, what the signer wrote to stdout or to its output file
+   */
+  public static String sign(final Path signer, final List<String> lines, final long timeoutMillis) {
+    return sign(signer, lines, timeoutMillis, io);
+  }
+
+  static String sign(final Path signer, final List<String> lines, final long timeoutMillis, final Io io) {
+    final Path directory = Holder.directory;
+    Path input = null;
+    Path output = null;
+
+    try {
+      final List<String> command = new ArrayList<>(SignerPool.command(signer));
+      final byte[] bytes = input(lines);
+
+      if (io == Io.file) {
+        input = Files.createTempFile(directory, input_prefix, ".lic");
+        output = directory.resolve(input.getFileName() + output_suffix);
+        Files.write(input, bytes);
+
+        command.add(input.getFileName().toString());
+      }
+      else {
+        command.add("-");
+      }
+
+      final Process process = new ProcessBuilder(command).directory(directory.toFile())
+                                                         .redirectError(ProcessBuilder.Redirect.INHERIT)
+                                                         .start();
+      running.incrementAndGet();
+      processes.put(Thread.currentThread(), process);
+
+      final AtomicBoolean expired = new AtomicBoolean();
+      final ScheduledFuture<?> alarm = Holder.alarms.schedule(() -> {
+        expired.set(true);
+        process.destroyForcibly();
+      }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+      try {
+        try (final OutputStream stdin = process.getOutputStream()) {
+          if (io == Io.pipe) {
+            stdin.write(bytes);
+          }
+        }
+
+        final String stdout = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+        final int status = process.waitFor();
+
+        if (expired.get()) {
+          throw new SignerException("signer did not complete within " + timeoutMillis + "ms");
+        }
+        if (status != 0) {
+          throw new SignerException("signer exited with " + status);
+        }
+        if (output == null) {
+          return stdout.trim();
+        }
+        if (!Files.isRegularFile(output)) {
+          throw new SignerException("signer wrote no output file | " + output.getFileName());
+        }
+        return new String(Files.readAllBytes(output), StandardCharsets.UTF_8).trim();
+      }
+      catch (final IOException e) {
+        if (expired.get()) {
+          throw new SignerException("signer did not complete within " + timeoutMillis + "ms", e);
+        }
+        throw e;
+      }
+      finally {
+        alarm.cancel(false);
+        processes.remove(Thread.currentThread());
+        process.destroyForcibly();
+        running.decrementAndGet();
+      }
+    }
+    catch (final IOException e) {
+      throw new SignerException("signer process failed | " + e.getMessage(), e);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SignerException("interrupted waiting for the signer", e);
+    }
+    finally {
+      delete(input);
+      delete(output);
+    }
+  }
+
+  private static void delete(final Path file) {
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      }
+      catch (final IOException e) {
+        logger.exception(e);
+      }
+    }
+  }
+}
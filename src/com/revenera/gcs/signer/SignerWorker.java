@@ -0,0 +1,306 @@
+package com.revenera.gcs.signer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One long-lived signer process and the framed protocol spoken over its stdin and stdout.
+ *
+ *   request    decimal length, '\n', then that many bytes, the license lines in UTF-8
+ *   response   "OK " or "ERR ", decimal length, '\n', then that many bytes, the signature or an error message
+ *   batch      '*', decimal count, '\n', then that many requests, answered by as many responses in order
+ *   health     '?', '\n', answered by an empty OK
+ *
+ * An empty request is an empty license, signed like any other. The process exits when its stdin is closed.
+ * A worker is used by one thread at a time.
+ *
+ * A signer may answer each request as soon as it has read it, so a batch larger than the pipe buffers is written
+ * by another thread while the answers are read, the signer would otherwise block on a full stdout while the
+ * batch is still being written to its full stdin.
+ */
+final class SignerWorker implements AutoCloseable {
+
+  /** longest response header accepted, "ERR " and a length */
+  private static final int header_limit = 32;
+
+  /** longest response body accepted */
+  private static final int body_limit = 16 << 20;
+
+  private static final byte[] health_check = {'?', '\n'};
+
+  /** requests up to this size are written before reading the answers, below the pipe buffer on any platform */
+  private static final int inline_write_limit = 4096;
+
+  private static final AtomicInteger sequence = new AtomicInteger();
+
+  private final int id;
+  private final Process process;
+  private final OutputStream requests;
+  private final InputStream responses;
+
+  private long calls;
+
+  SignerWorker(final List<String> command, final File directory) throws IOException {
+    this.id = sequence.incrementAndGet();
+
+    final ProcessBuilder builder = new ProcessBuilder(command);
+    builder.directory(directory);
+    builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+
+    this.process = builder.start();
+    this.requests = new BufferedOutputStream(this.process.getOutputStream());
+    this.responses = new BufferedInputStream(this.process.getInputStream());
+  }
+
+  int getId() {
+    return this.id;
+  }
+
+  long getCalls() {
+    return this.calls;
+  }
+
+  boolean isAlive() {
+    return this.process.isAlive();
+  }
+
+  /**
+   * What the signer answered for one request, a signature or the error it refused the request with
+   */
+  static final class Answer {
+    final boolean ok;
+    final byte[] body;
+
+    Answer(final boolean accepted, final byte[] payload) {
+      this.ok = accepted;
+      this.body = payload;
+    }
+
+    /**
+     * @throws SignerException the signer refused the request
+     */
+    byte[] get() {
+      if (!this.ok) {
+        throw refusal();
+      }
+      return this.body;
+    }
+
+    SignerException refusal() {
+      return new SignerException("signer refused | " + new String(this.body, StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * @return true when the process answered a health check in time
+   */
+  boolean ping(final long timeoutMillis, final ScheduledExecutorService alarms) {
+    try {
+      return exchange(Collections.singletonList(health_check), 1, timeoutMillis, alarms, null).get(0).get().length == 0;
+    }
+    catch (final Throwable t) {
+      return false;
+    }
+  }
+
+  /**
+   * send requests and wait for their answers, as a batch when there are several. the process is killed when
+   * it does not answer all of them in time.
+   *
+   * @param writers writes the requests when they do not fit in the pipe
+   * @return the answers, in the order of the requests
+   * @throws TimeoutException no answer in time, the worker is dead
+   * @throws IOException the process died or broke the protocol, the worker is dead
+   */
+  List<Answer> call(final List<byte[]> requests,
+                    final long timeoutMillis,
+                    final ScheduledExecutorService alarms,
+                    final ExecutorService writers) throws IOException, TimeoutException {
+    final List<byte[]> frames = new ArrayList<>(requests.size() * 2 + 1);
+
+    if (requests.size() > 1) {
+      frames.add(("*" + requests.size() + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+    for (final byte[] request : requests) {
+      frames.add((request.length + "\n").getBytes(StandardCharsets.US_ASCII));
+      frames.add(request);
+    }
+
+    final List<Answer> answers = exchange(frames, requests.size(), timeoutMillis, alarms, writers);
+    this.calls += requests.size();
+    return answers;
+  }
+
+  /**
+   * write the frames and read as many answers, the frames are written by a writer while the answers are read
+   * when there is one and they do not fit in the pipe
+   */
+  private List<Answer> exchange(final List<byte[]> frames,
+                                final int count,
+                                final long timeoutMillis,
+                                final ScheduledExecutorService alarms,
+                                final ExecutorService writers) throws IOException, TimeoutException {
+    final AtomicBoolean expired = new AtomicBoolean();
+
+    final ScheduledFuture<?> alarm = alarms.schedule(() -> {
+      expired.set(true);
+      this.process.destroyForcibly();
+    }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+    try {
+      final Future<?> written = writers != null && frames.stream().mapToInt(frame -> frame.length).sum() > inline_write_limit
+                                ? writers.submit(() -> write(frames))
+                                : null;
+      if (written == null) {
+        write(frames);
+      }
+
+      final List<Answer> answers = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        answers.add(answer());
+      }
+
+      if (written != null) {
+        written.get();
+      }
+      return answers;
+    }
+    catch (final ExecutionException e) {
+      if (expired.get()) {
+        throw new TimeoutException("signer worker " + this.id + " did not answer within " + timeoutMillis + "ms");
+      }
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("interrupted writing to signer worker " + this.id, e);
+    }
+    catch (final IOException e) {
+      if (expired.get()) {
+        throw new TimeoutException("signer worker " + this.id + " did not answer within " + timeoutMillis + "ms");
+      }
+      throw e;
+    }
+    finally {
+      alarm.cancel(false);
+    }
+  }
+
+  private Void write(final List<byte[]> frames) throws IOException {
+    for (final byte[] frame : frames) {
+      this.requests.write(frame);
+    }
+    this.requests.flush();
+    return null;
+  }
+
+  private Answer answer() throws IOException {
+    final String header = header();
+    final int space = header.indexOf(' ');
+    if (space < 0) {
+      throw new IOException("signer protocol | header " + header);
+    }
+
+    final String status = header.substring(0, space);
+    final byte[] body = body(parseLength(header.substring(space + 1)));
+
+    switch (status) {
+      case "OK":
+        return new Answer(true, body);
+      case "ERR":
+        return new Answer(false, body);
+      default:
+        throw new IOException("signer protocol | status " + status);
+    }
+  }
+
+  private String header() throws IOException {
+    final ByteArrayOutputStream header = new ByteArrayOutputStream(header_limit);
+
+    for (int b = this.responses.read(); b != '\n'; b = this.responses.read()) {
+      if (b < 0) {
+        throw new EOFException("signer worker " + this.id + " exited");
+      }
+      if (header.size() == header_limit) {
+        throw new IOException("signer protocol | header too long");
+      }
+      header.write(b);
+    }
+    return new String(header.toByteArray(), StandardCharsets.US_ASCII);
+  }
+
+  private static int parseLength(final String value) throws IOException {
+    try {
+      final int length = Integer.parseInt(value.trim());
+      if (length < 0 || length > body_limit) {
+        throw new IOException("signer protocol | length " + value);
+      }
+      return length;
+    }
+    catch (final NumberFormatException e) {
+      throw new IOException("signer protocol | length " + value, e);
+    }
+  }
+
+  private byte[] body(final int length) throws IOException {
+    final byte[] body = new byte[length];
+
+    for (int read = 0; read < length; ) {
+      final int n = this.responses.read(body, read, length - read);
+      if (n < 0) {
+        throw new EOFException("signer worker " + this.id + " exited");
+      }
+      read += n;
+    }
+    return body;
+  }
+
+  /**
+   * close stdin so that the signer exits on its own, and kill it when it does not
+   */
+  @Override
+  public void close() {
+    try {
+      this.requests.close();
+    }
+    catch (final IOException e) {
+      // already gone
+    }
+
+    try {
+      if (!this.process.waitFor(1, TimeUnit.SECONDS)) {
+        this.process.destroyForcibly();
+      }
+    }
+    catch (final InterruptedException e) {
+      this.process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+
+    try {
+      this.responses.close();
+    }
+    catch (final IOException e) {
+      // already gone
+    }
+  }
+}
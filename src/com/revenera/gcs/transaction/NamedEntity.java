@@ -3,11 +3,13 @@ package com.revenera.gcs.transaction;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 public abstract class NamedEntity extends TimedEntity {
 
-  protected final String id = UUID.randomUUID().toString();
+  /** random, but not from the shared SecureRandom behind UUID.randomUUID() */
+  protected final String id = new UUID(ThreadLocalRandom.current().nextLong(), ThreadLocalRandom.current().nextLong()).toString();
 
   protected final String name;
 
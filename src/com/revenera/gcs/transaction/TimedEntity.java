@@ -24,6 +24,16 @@ public abstract class TimedEntity {
     this.duration = Duration.between(this.start, Instant.now());
   }
 
+  @JsonIgnore
+  public Instant getStart() {
+    return this.start;
+  }
+
+  @JsonIgnore
+  public Duration getDuration() {
+    return this.duration;
+  }
+
   @JsonIgnore
   public boolean isStopped() {
     return this.duration != null;
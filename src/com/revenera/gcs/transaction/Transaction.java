@@ -4,14 +4,10 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.revenera.gcs.utils.Log;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 public class Transaction extends NamedEntity {
-  private final static LinkedBlockingQueue<Transaction> transactions = new LinkedBlockingQueue<>();
 
   public static final Log logger = Log.create(Transaction.class);
 
@@ -61,6 +57,8 @@ public class Transaction extends NamedEntity {
 
   private final LinkedList<Element> elements = new LinkedList<>();
   private Object response;
+  private String technology;
+  private String failure;
 
   /**
    *
@@ -87,6 +85,63 @@ public class Transaction extends NamedEntity {
     return this;
   }
 
+  /**
+   *
+   * @param technology
+   * @return
+   */
+  @JsonIgnore
+  public Transaction setTechnology(final String technology) {
+    this.technology = technology;
+    return this;
+  }
+
+  /**
+   *
+   * @param t
+   * @return
+   */
+  @JsonIgnore
+  public Transaction addFailure(final Throwable t) {
+    // debug
+    TransactionException.assertNotNull(t);
+    TransactionException.assertNull(this.failure);
+    // debug
+    super.stop();
+    this.failure = t.getClass().getName() + " | " + t.getMessage();
+    return this;
+  }
+
+  @JsonIgnore
+  public String getName() {
+    return this.name;
+  }
+
+  @JsonIgnore
+  public String getTechnology() {
+    return this.technology;
+  }
+
+  @JsonIgnore
+  public String getFailure() {
+    return this.failure;
+  }
+
+  @JsonIgnore
+  public boolean isFailed() {
+    return this.failure != null;
+  }
+
+  @JsonIgnore
+  public Object getRequest() {
+    return this.elements.isEmpty() ? null : this.elements.getFirst().request;
+  }
+
+  @JsonIgnore
+  public Object getResponse() {
+    return this.response;
+  }
+
   /**
    *
    * @return
@@ -102,8 +157,7 @@ public class Transaction extends NamedEntity {
    */
   @JsonIgnore
   public Transaction commit() {
-    transactions.add(this);
-    logger.array(Log.Level.info, "transaction size", transactions.size());
+    TransactionRecorder.instance().record(this);
     return this;
   }
 
@@ -118,19 +172,6 @@ public class Transaction extends NamedEntity {
     return element;
   }
 
-  /**
-   *
-   * @return
-   */
-  public static List<Transaction> removeAll() {
-    if (!transactions.isEmpty()) {
-      final List<Transaction> list = new ArrayList<>();
-      transactions.drainTo(list);
-      return list;
-    }
-    return null;
-  }
-
   /**
    *
    * @param name
@@ -0,0 +1,182 @@
+package com.revenera.gcs.transaction;
+
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal of committed transactions, written by the {@link TransactionRecorder} thread only.
+ *
+ * The journal is a directory of segment files, "transactions-yyyyMMdd-HHmmss-SSS.rtj". A segment starts with
+ * the 4 byte magic "RTJ2" and is followed by records:
+ *
+ *   int    length of the rest of the record
+ *   long   start, epoch millis
+ *   long   duration, nanos
+ *   byte   flags, 1 = failed
+ *   UTF    operation
+ *   UTF    license technology, empty if unknown
+ *   UTF    request class name, empty if none
+ *   int    request json length, then the bytes
+ *   int    response json length (0 if not captured), then the bytes
+ *   int    failure UTF-8 length (0 if none), then the bytes
+ *
+ * "RTJ1" segments, written before, are the same but for the failure, written with DataOutput.writeUTF. That
+ * limits it to 64KB encoded, a longer one failed the record. They are still read.
+ *
+ * Segments are rotated at a size limit and the oldest ones are deleted when the journal exceeds its cap.
+ */
+public final class TransactionJournal implements AutoCloseable {
+
+  private static final Log logger = Log.create(TransactionJournal.class);
+
+  public static final byte[] magic = {'R', 'T', 'J', '2'};
+
+  /** segments whose failure is a writeUTF string */
+  static final byte[] magic_utf_failure = {'R', 'T', 'J', '1'};
+  public static final String segment_prefix = "transactions-";
+  public static final String segment_suffix = ".rtj";
+  public static final byte flag_failed = 1;
+
+  static final DateTimeFormatter segment_time = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+  private final Path directory;
+  private final long segmentBytes;
+  private final long maxBytes;
+  private final boolean responses;
+
+  private final ByteArrayOutputStream record = new ByteArrayOutputStream(4096);
+  private final DataOutputStream out = new DataOutputStream(this.record);
+
+  private FileChannel channel;
+  private long size;
+
+  /**
+   * @param directory journal directory, created if missing
+   * @param segmentBytes rotate when a segment reaches this size
+   * @param maxBytes delete the oldest segments beyond this total
+   * @param responses capture response payloads as well as requests
+   */
+  public TransactionJournal(final Path directory, final long segmentBytes, final long maxBytes, final boolean responses) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.segmentBytes = segmentBytes;
+    this.maxBytes = maxBytes;
+    this.responses = responses;
+  }
+
+  public static List<Path> segments(final Path directory) throws IOException {
+    final List<Path> list = new ArrayList<>();
+
+    if (Files.isDirectory(directory)) {
+      try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, segment_prefix + "*" + segment_suffix)) {
+        stream.forEach(list::add);
+      }
+    }
+    // names sort by creation time
+    list.sort(null);
+    return list;
+  }
+
+  private static byte[] json(final Object payload) {
+    return payload == null ? new byte[0] : Utils.safeSerializeJson(payload).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String text(final String value) {
+    return value == null ? "" : value;
+  }
+
+  public void append(final Transaction transaction) throws IOException {
+    final Object request = transaction.getRequest();
+
+    final byte[] requestBytes = json(request);
+    final byte[] responseBytes = this.responses ? json(transaction.getResponse()) : new byte[0];
+    final byte[] failureBytes = text(transaction.getFailure()).getBytes(StandardCharsets.UTF_8);
+
+    this.record.reset();
+    this.out.writeInt(0);
+    this.out.writeLong(transaction.getStart().toEpochMilli());
+    this.out.writeLong(transaction.isStopped() ? transaction.getDuration().toNanos() : 0L);
+    this.out.writeByte(transaction.isFailed() ? flag_failed : 0);
+    this.out.writeUTF(text(transaction.getName()));
+    this.out.writeUTF(text(transaction.getTechnology()));
+    this.out.writeUTF(request == null ? "" : request.getClass().getName());
+    this.out.writeInt(requestBytes.length);
+    this.out.write(requestBytes);
+    this.out.writeInt(responseBytes.length);
+    this.out.write(responseBytes);
+    this.out.writeInt(failureBytes.length);
+    this.out.write(failureBytes);
+    this.out.flush();
+
+    final ByteBuffer buffer = ByteBuffer.wrap(this.record.toByteArray());
+    buffer.putInt(0, buffer.remaining() - Integer.BYTES);
+
+    rotate(buffer.remaining());
+
+    while (buffer.hasRemaining()) {
+      this.size += this.channel.write(buffer);
+    }
+  }
+
+  private void rotate(final int incoming) throws IOException {
+    if (this.channel != null && this.size + incoming <= this.segmentBytes) {
+      return;
+    }
+
+    close();
+
+    final String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(segment_time);
+
+    Path segment = this.directory.resolve(segment_prefix + stamp + segment_suffix);
+    for (int i = 1; Files.exists(segment); i++) {
+      segment = this.directory.resolve(segment_prefix + stamp + "." + i + segment_suffix);
+    }
+
+    this.channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    this.size = this.channel.write(ByteBuffer.wrap(magic));
+
+    logger.array(Log.Level.debug, "journal segment", segment);
+
+    enforceCap();
+  }
+
+  private void enforceCap() throws IOException {
+    final List<Path> segments = segments(this.directory);
+
+    long total = 0;
+    for (final Path segment : segments) {
+      total += Files.size(segment);
+    }
+
+    // the newest segment is the one being written
+    for (int i = 0; i < segments.size() - 1 && total > this.maxBytes; i++) {
+      total -= Files.size(segments.get(i));
+      Files.deleteIfExists(segments.get(i));
+
+      logger.array(Log.Level.debug, "journal segment deleted", segments.get(i));
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.channel != null) {
+      this.channel.close();
+      this.channel = null;
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.revenera.gcs.transaction;
+
+import com.revenera.gcs.utils.Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads {@link TransactionJournal} segments through memory-mapped buffers. Payloads stay as slices of the
+ * mapping and are only copied or parsed when asked for.
+ */
+public final class TransactionJournalReader {
+
+  /**
+   * one journaled transaction
+   */
+  public static final class Record {
+    private final Path segment;
+    private final long start;
+    private final long durationNanos;
+    private final boolean failed;
+    private final String operation;
+    private final String technology;
+    private final String requestType;
+    private final ByteBuffer request;
+    private final ByteBuffer response;
+    private final String failure;
+
+    Record(final Path segment,
+           final long start,
+           final long durationNanos,
+           final boolean failed,
+           final String operation,
+           final String technology,
+           final String requestType,
+           final ByteBuffer request,
+           final ByteBuffer response,
+           final String failure) {
+      this.segment = segment;
+      this.start = start;
+      this.durationNanos = durationNanos;
+      this.failed = failed;
+      this.operation = operation;
+      this.technology = technology;
+      this.requestType = requestType;
+      this.request = request;
+      this.response = response;
+      this.failure = failure;
+    }
+
+    public Path getSegment() {
+      return this.segment;
+    }
+
+    public long getStart() {
+      return this.start;
+    }
+
+    public long getDurationNanos() {
+      return this.durationNanos;
+    }
+
+    public boolean isFailed() {
+      return this.failed;
+    }
+
+    public String getOperation() {
+      return this.operation;
+    }
+
+    public String getTechnology() {
+      return this.technology;
+    }
+
+    public String getRequestType() {
+      return this.requestType;
+    }
+
+    public String getFailure() {
+      return this.failure;
+    }
+
+    public boolean hasRequest() {
+      return this.request.hasRemaining();
+    }
+
+    public String getRequestJson() {
+      return text(this.request);
+    }
+
+    public String getResponseJson() {
+      return text(this.response);
+    }
+
+    /**
+     * @return request payload rebuilt as its original type
+     */
+    public Object readRequest() throws IOException, ClassNotFoundException {
+      final Class<?> type = Class.forName(this.requestType);
+
+      return Utils.json_mapper.readValue(bytes(this.request), type);
+    }
+  }
+
+  private TransactionJournalReader() {
+  }
+
+  static byte[] bytes(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  static String text(final ByteBuffer buffer) {
+    return new String(bytes(buffer), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * reads a string written with DataOutput.writeUTF
+   */
+  static String readUTF(final ByteBuffer buffer) throws IOException {
+    final int length = Short.toUnsignedInt(buffer.getShort(buffer.position()));
+    final byte[] encoded = new byte[Short.BYTES + length];
+    buffer.get(encoded);
+
+    return new DataInputStream(new ByteArrayInputStream(encoded)).readUTF();
+  }
+
+  static ByteBuffer slice(final ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    final ByteBuffer slice = buffer.duplicate();
+    slice.limit(slice.position() + length);
+
+    buffer.position(buffer.position() + length);
+    return slice.slice();
+  }
+
+  /**
+   * @param consumer called for every record of the segment, in journal order
+   * @return number of records read
+   */
+  public static long read(final Path segment, final Consumer<Record> consumer) throws IOException {
+    try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      final byte[] header = new byte[TransactionJournal.magic.length];
+      if (buffer.remaining() < header.length) {
+        return 0;
+      }
+      buffer.get(header);
+      final boolean utfFailure = Arrays.equals(header, TransactionJournal.magic_utf_failure);
+      if (!utfFailure && !Arrays.equals(header, TransactionJournal.magic)) {
+        throw new IOException(segment + " | not a transaction journal segment");
+      }
+
+      long count = 0;
+      while (buffer.remaining() >= Integer.BYTES) {
+        final int length = buffer.getInt();
+
+        if (length <= 0 || length > buffer.remaining()) {
+          // segment still being written, or truncated
+          break;
+        }
+
+        final ByteBuffer record = buffer.duplicate();
+        record.limit(record.position() + length);
+        buffer.position(buffer.position() + length);
+
+        final long start = record.getLong();
+        final long duration = record.getLong();
+        final boolean failed = (record.get() & TransactionJournal.flag_failed) != 0;
+        final String operation = readUTF(record);
+        final String technology = readUTF(record);
+        final String requestType = readUTF(record);
+        final ByteBuffer request = slice(record);
+        final ByteBuffer response = slice(record);
+        final String failure = utfFailure ? readUTF(record) : text(slice(record));
+
+        consumer.accept(new Record(segment, start, duration, failed, operation, technology, requestType, request, response, failure));
+        count++;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * @param directory journal directory, segments are read oldest first
+   * @return number of records read
+   */
+  public static long readAll(final Path directory, final Consumer<Record> consumer) throws IOException {
+    final List<Path> segments = TransactionJournal.segments(directory);
+
+    long count = 0;
+    for (final Path segment : segments) {
+      count += read(segment, consumer);
+    }
+    return count;
+  }
+}
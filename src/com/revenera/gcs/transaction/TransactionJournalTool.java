@@ -0,0 +1,299 @@
+package com.revenera.gcs.transaction;
+
+import com.flexnet.external.type.BulkGeneratorRequest;
+import com.flexnet.external.type.FulfillmentRecordSet;
+import com.flexnet.external.type.GeneratorRequest;
+import com.flexnet.external.webservice.keygenerator.LicenseGeneratorServiceImpl;
+import com.revenera.gcs.Application;
+import com.revenera.gcs.ServiceOperation;
+import com.revenera.gcs.utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Command line analysis and replay of a transaction journal.
+ *
+ * usage:
+ *   summary <journal> [--window seconds] [--operation name]
+ *   slow    <journal> --threshold-ms n [--operation name]
+ *   failed  <journal> [--operation name]
+ *   extract <journal> <out-dir> [--threshold-ms n] [--failed] [--operation name]
+ *   replay  <journal> [--web-inf dir] [--rate per-second] [--threads n] [--limit n] [--operation name]
+ *
+ * replay runs captured generateLicense(s) and consolidateFulfillments requests against a local
+ * LicenseGeneratorServiceImpl, paced at the given rate, and compares latencies with the journaled ones.
+ */
+public final class TransactionJournalTool {
+
+  private static final PrintStream out = System.out;
+
+  private final Map<String, String> options = new HashMap<>();
+  private final List<String> arguments = new ArrayList<>();
+
+  private TransactionJournalTool(final String[] args) {
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].startsWith("--")) {
+        final boolean flag = i + 1 >= args.length || args[i + 1].startsWith("--");
+        this.options.put(args[i].substring(2), flag ? "true" : args[++i]);
+      }
+      else {
+        this.arguments.add(args[i]);
+      }
+    }
+  }
+
+  private String option(final String name, final String fallback) {
+    return this.options.getOrDefault(name, fallback);
+  }
+
+  private String argument(final int index) {
+    if (index >= this.arguments.size()) {
+      usage();
+    }
+    return this.arguments.get(index);
+  }
+
+  private boolean selected(final TransactionJournalReader.Record record) {
+    final String operation = this.options.get("operation");
+    return operation == null || operation.equals(record.getOperation());
+  }
+
+  private static void usage() {
+    System.err.println("usage: TransactionJournalTool summary|slow|failed|extract|replay <journal-directory> [options]");
+    System.exit(2);
+  }
+
+  static double millis(final long nanos) {
+    return LatencyHistogram.toMillis(nanos);
+  }
+
+  static String describe(final TransactionJournalReader.Record record) {
+    return String.format("%s | %s | %s | %.3fms | %s | %s",
+                         Instant.ofEpochMilli(record.getStart()),
+                         record.getOperation(),
+                         record.getTechnology(),
+                         millis(record.getDurationNanos()),
+                         record.isFailed() ? "FAILED " + record.getFailure() : "ok",
+                         record.getSegment().getFileName());
+  }
+
+  /** latency and error counts of one operation over one window */
+  static final class Window {
+    final LatencyHistogram latency = new LatencyHistogram();
+    long errors;
+  }
+
+  private void summary(final Path journal) throws IOException {
+    final long window = TimeUnit.SECONDS.toMillis(Long.parseLong(option("window", "60")));
+
+    final Map<String, TreeMap<Long, Window>> operations = new TreeMap<>();
+
+    final long count = TransactionJournalReader.readAll(journal, record -> {
+      if (selected(record)) {
+        final Window bucket = operations
+                .computeIfAbsent(record.getOperation(), key -> new TreeMap<>())
+                .computeIfAbsent(record.getStart() - record.getStart() % window, key -> new Window());
+
+        bucket.latency.record(record.getDurationNanos());
+        if (record.isFailed()) {
+          bucket.errors++;
+        }
+      }
+    });
+
+    out.printf("%d records%n", count);
+    out.printf("%-38s %-24s %8s %6s %9s %9s %9s %9s %9s%n",
+               "operation", "window", "count", "errors", "req/s", "p50ms", "p90ms", "p99ms", "maxms");
+
+    operations.forEach((operation, windows) -> windows.forEach((start, bucket) -> {
+      final LatencyHistogram.Snapshot snapshot = bucket.latency.snapshot();
+
+      out.printf("%-38s %-24s %8d %6d %9.2f %9.3f %9.3f %9.3f %9.3f%n",
+                 operation,
+                 Instant.ofEpochMilli(start),
+                 snapshot.getCount(),
+                 bucket.errors,
+                 snapshot.getCount() * 1000.0 / window,
+                 millis(snapshot.percentileNanos(0.50)),
+                 millis(snapshot.percentileNanos(0.90)),
+                 millis(snapshot.percentileNanos(0.99)),
+                 millis(snapshot.getMaxNanos()));
+    }));
+  }
+
+  private void list(final Path journal, final boolean failedOnly) throws IOException {
+    final long threshold = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(option("threshold-ms", "0")));
+
+    TransactionJournalReader.readAll(journal, record -> {
+      if (selected(record) && (failedOnly ? record.isFailed() : record.getDurationNanos() >= threshold)) {
+        out.println(describe(record));
+      }
+    });
+  }
+
+  private void extract(final Path journal, final Path directory) throws IOException {
+    final long threshold = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(option("threshold-ms", "0")));
+    final boolean failed = Boolean.parseBoolean(option("failed", "false"));
+
+    Files.createDirectories(directory);
+
+    final AtomicLong extracted = new AtomicLong();
+
+    TransactionJournalReader.readAll(journal, record -> {
+      final boolean wanted = failed ? record.isFailed() : record.getDurationNanos() >= threshold;
+
+      if (selected(record) && wanted && record.hasRequest()) {
+        final String name = String.format("%s-%s-%06d.json", record.getOperation(), record.getStart(), extracted.incrementAndGet());
+        try {
+          Files.write(directory.resolve(name), record.getRequestJson().getBytes(StandardCharsets.UTF_8));
+        }
+        catch (final IOException e) {
+          throw new RuntimeException(e);
+        }
+        out.println(name + " | " + describe(record));
+      }
+    });
+
+    out.printf("%d requests extracted to %s%n", extracted.get(), directory);
+  }
+
+  private void replay(final Path journal) throws Exception {
+    final double rate = Double.parseDouble(option("rate", "10"));
+    final int threads = Integer.parseInt(option("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    final long limit = Long.parseLong(option("limit", String.valueOf(Long.MAX_VALUE)));
+
+    final Application application = new Application();
+    application.initialize(Paths.get(option("web-inf", "WebContent/WEB-INF")).toAbsolutePath().toString());
+
+    final LicenseGeneratorServiceImpl service = new LicenseGeneratorServiceImpl();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    final LatencyHistogram original = new LatencyHistogram();
+    final LatencyHistogram replayed = new LatencyHistogram();
+    final AtomicLong submitted = new AtomicLong();
+    final AtomicLong errors = new AtomicLong();
+
+    final long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+    final long begin = System.nanoTime();
+
+    try {
+      TransactionJournalReader.readAll(journal, record -> {
+        final boolean replayable = ServiceOperation.generateLicense.name().equals(record.getOperation())
+                || ServiceOperation.generateLicenses.name().equals(record.getOperation())
+                || ServiceOperation.consolidateFulfillments.name().equals(record.getOperation());
+
+        if (!selected(record) || !replayable || !record.hasRequest() || submitted.get() >= limit) {
+          return;
+        }
+
+        final Object request;
+        try {
+          request = record.readRequest();
+        }
+        catch (final Exception e) {
+          System.err.println("cannot read request | " + describe(record) + " | " + e.getMessage());
+          return;
+        }
+
+        // pace submissions at the requested rate
+        final long due = begin + submitted.getAndIncrement() * interval;
+        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+          LockSupport.parkNanos(wait);
+        }
+
+        original.record(record.getDurationNanos());
+
+        executor.submit(() -> {
+          final long started = System.nanoTime();
+          try {
+            if (request instanceof GeneratorRequest) {
+              service.generateLicense((GeneratorRequest) request);
+            }
+            else if (request instanceof BulkGeneratorRequest) {
+              service.generateLicenses((BulkGeneratorRequest) request);
+            }
+            else if (request instanceof FulfillmentRecordSet) {
+              service.consolidateFulfillments((FulfillmentRecordSet) request);
+            }
+          }
+          catch (final Throwable t) {
+            errors.incrementAndGet();
+          }
+          finally {
+            replayed.record(System.nanoTime() - started);
+          }
+        });
+      });
+    }
+    finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.HOURS);
+      application.shutdown();
+    }
+
+    final double seconds = (System.nanoTime() - begin) / (double) TimeUnit.SECONDS.toNanos(1);
+
+    out.printf("replayed %d requests in %.1fs (%.2f req/s), %d errors, %d threads%n",
+               submitted.get(), seconds, submitted.get() / seconds, errors.get(), threads);
+    out.printf("%-10s %9s %9s %9s %9s %9s%n", "", "meanms", "p50ms", "p90ms", "p99ms", "maxms");
+
+    for (final Map.Entry<String, LatencyHistogram> entry : new TreeMap<String, LatencyHistogram>() {
+      {
+        this.put("journal", original);
+        this.put("replay", replayed);
+      }
+    }.entrySet()) {
+      final LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+
+      out.printf("%-10s %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                 entry.getKey(),
+                 millis(snapshot.getMeanNanos()),
+                 millis(snapshot.percentileNanos(0.50)),
+                 millis(snapshot.percentileNanos(0.90)),
+                 millis(snapshot.percentileNanos(0.99)),
+                 millis(snapshot.getMaxNanos()));
+    }
+  }
+
+  public static void main(final String[] args) throws Exception {
+    final TransactionJournalTool tool = new TransactionJournalTool(args);
+
+    final Path journal = Paths.get(tool.argument(1));
+
+    switch (tool.argument(0)) {
+      case "summary":
+        tool.summary(journal);
+        break;
+      case "slow":
+        tool.list(journal, false);
+        break;
+      case "failed":
+        tool.list(journal, true);
+        break;
+      case "extract":
+        tool.extract(journal, Paths.get(tool.argument(2)));
+        break;
+      case "replay":
+        tool.replay(journal);
+        break;
+      default:
+        usage();
+    }
+  }
+}
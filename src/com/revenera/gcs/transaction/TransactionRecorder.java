@@ -0,0 +1,189 @@
+package com.revenera.gcs.transaction;
+
+import com.revenera.gcs.utils.Log;
+import com.revenera.gcs.utils.Settings;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Takes committed transactions off the request thread.
+ *
+ * Transactions are sampled, queued in a fixed-capacity buffer (dropped when it is full) and written to the
+ * {@link TransactionJournal} by a single background thread, so nothing holds on to request and response graphs
+ * once they are journaled. Recording is disabled unless a journal directory is configured.
+ *
+ * settings (system properties):
+ *   revenera.transactions.directory       journal directory, recording is off when not set
+ *   revenera.transactions.capacity        buffered transactions (default 1024)
+ *   revenera.transactions.sample          fraction of successful transactions recorded, 0..1 (default 1)
+ *   revenera.transactions.errors          always record failed transactions (default true)
+ *   revenera.transactions.responses       journal response payloads too (default false)
+ *   revenera.transactions.segment.bytes   segment rotation size (default 16MB)
+ *   revenera.transactions.max.bytes       total journal size cap (default 512MB)
+ */
+public final class TransactionRecorder {
+
+  private static final Log logger = Log.create(TransactionRecorder.class);
+
+  private static final class Holder {
+    static final TransactionRecorder instance = new TransactionRecorder();
+  }
+
+  public static TransactionRecorder instance() {
+    return Holder.instance;
+  }
+
+  private final Path directory;
+  private final double sample;
+  private final boolean errors;
+  private final ArrayBlockingQueue<Transaction> buffer;
+
+  private final AtomicLong recorded = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong skipped = new AtomicLong();
+  private final AtomicLong journaled = new AtomicLong();
+
+  private final Thread writer;
+  private volatile boolean running = true;
+
+  private TransactionRecorder() {
+    this.directory = Settings.find("revenera.transactions.directory").map(Paths::get).orElse(null);
+    this.sample = sample(Settings.get("revenera.transactions.sample", "1"));
+    this.errors = Settings.getBoolean("revenera.transactions.errors", true);
+    this.buffer = new ArrayBlockingQueue<>(Math.max(1, Settings.getInt("revenera.transactions.capacity", 1024)));
+
+    if (this.directory != null) {
+      this.writer = new Thread(this::drain, "revenera-transaction-journal");
+      this.writer.setDaemon(true);
+      this.writer.start();
+    }
+    else {
+      this.writer = null;
+    }
+  }
+
+  /**
+   * @return the sampled fraction clamped to 0..1, everything when the setting does not parse
+   */
+  private static double sample(final String setting) {
+    try {
+      final double sample = Double.parseDouble(setting);
+      if (Double.isNaN(sample)) {
+        throw new NumberFormatException("NaN");
+      }
+      return Math.max(0, Math.min(1, sample));
+    }
+    catch (final NumberFormatException e) {
+      logger.log(Log.Level.warning, "revenera.transactions.sample is not a fraction, recording everything | " + setting);
+      return 1;
+    }
+  }
+
+  /**
+   * @return false when no journal is configured, callers can then skip building transactions altogether
+   */
+  public boolean isEnabled() {
+    return this.writer != null && this.running;
+  }
+
+  void record(final Transaction transaction) {
+    if (!isEnabled()) {
+      return;
+    }
+
+    final boolean keep = (this.errors && transaction.isFailed())
+            || this.sample >= 1.0
+            || ThreadLocalRandom.current().nextDouble() < this.sample;
+
+    if (!keep) {
+      this.skipped.incrementAndGet();
+    }
+    else if (this.buffer.offer(transaction)) {
+      this.recorded.incrementAndGet();
+    }
+    else {
+      this.dropped.incrementAndGet();
+    }
+  }
+
+  private void drain() {
+    final List<Transaction> batch = new ArrayList<>();
+
+    try (final TransactionJournal journal = new TransactionJournal(
+            this.directory,
+            Math.max(1, Settings.getLong("revenera.transactions.segment.bytes", 16L * 1024 * 1024)),
+            Settings.getLong("revenera.transactions.max.bytes", 512L * 1024 * 1024),
+            Settings.getBoolean("revenera.transactions.responses", false))) {
+
+      logger.array(Log.Level.info, "transaction journal", this.directory);
+
+      while (this.running || !this.buffer.isEmpty()) {
+        final Transaction first = this.buffer.poll(250, TimeUnit.MILLISECONDS);
+
+        if (first != null) {
+          batch.add(first);
+          this.buffer.drainTo(batch);
+
+          for (final Transaction transaction : batch) {
+            try {
+              journal.append(transaction);
+              this.journaled.incrementAndGet();
+            }
+            catch (final Throwable t) {
+              logger.exception(t);
+            }
+          }
+          batch.clear();
+        }
+      }
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+    }
+  }
+
+  /**
+   * stop accepting transactions and write out what is buffered
+   */
+  public void close() {
+    if (this.running) {
+      this.running = false;
+
+      if (this.writer != null) {
+        try {
+          this.writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  public long getRecorded() {
+    return this.recorded.get();
+  }
+
+  public long getDropped() {
+    return this.dropped.get();
+  }
+
+  public long getSkipped() {
+    return this.skipped.get();
+  }
+
+  public long getJournaled() {
+    return this.journaled.get();
+  }
+
+  public int getPending() {
+    return this.buffer.size();
+  }
+}
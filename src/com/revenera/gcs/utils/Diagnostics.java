@@ -2,131 +2,311 @@ package com.revenera.gcs.utils;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.IntStream;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
-
+/**
+ * Per-endpoint request counters and latency histograms.
+ *
+ * Endpoints are registered up front so that recording is only adder increments and a histogram update, no
+ * locks are taken on the request path and serialization reads a snapshot while requests keep recording.
+ */
 public final class Diagnostics {
 
   public final static Log logger = Log.create(Diagnostics.class);
 
   private static final Function<Duration, String> reformat = (d) -> {
     final AtomicReference<String> str = new AtomicReference<>(d.toString().replace("PT","").replace("H",":").replace("M",":").replace("S",""));
-    
+
     IntStream.range(0, 9).forEach(index -> {
       str.getAndUpdate((y) -> y.replace(":"+index+":", ":0"+index+":").replace(":"+index+".", ":0"+index+"."));
     });
-    
+
     return str.get();
   };
-  
-  private static final Function<Instant, Duration> elapseNow = (i) -> Duration.between(i,  Instant.now());
-  
-  public final class Token {
-    private final Class<?> clazz;
-    private final String endpoint;
-    private final Instant timestamp = Instant.now();
-
-    private Token(final Class<?> clazz, final String endpoint) {
-      this.clazz = clazz;
-      this.endpoint = endpoint;
-    }
-    
-    public void commit() {
-      Diagnostics.this.touch(this);
+
+  private static final Function<Long, String> idleSince = (millis) -> millis == 0L
+          ? "never"
+          : reformat.apply(Duration.ofMillis(System.currentTimeMillis() - millis));
+
+  /**
+   * Times one call of an endpoint, started with {@link Element#start()} and recorded by {@link #close()}.
+   * Each thread reuses its own timers (one per nesting depth), so timing a request allocates nothing.
+   */
+  public static final class Timer implements AutoCloseable {
+    private static final ThreadLocal<Timer> current = ThreadLocal.withInitial(Timer::new);
+
+    private Element element;
+    private Element secondary;
+    private long started;
+    private boolean failed;
+    private boolean running;
+    private Timer nested;
+
+    private Timer() {
     }
-  }
-  
-  class Details {
-    class Element {
-      private long count = 0;
-      private Instant accessed = null;
-      private Duration elapse = Duration.ofNanos(0);
-      
-      @JsonIgnore
-      void touch(final Token token) {
-        this.count += 1;
-        this.accessed = token.timestamp;
-        
-        this.elapse = this.elapse.plus(elapseNow.apply(token.timestamp));
-      }
-      
-      public Long getCount() {
-        return this.count;
-      }
 
-      public String getIdle() {
-        return reformat.apply(elapseNow.apply(this.accessed));
+    static Timer start(final Element element) {
+      Timer timer = current.get();
+
+      while (timer.running) {
+        if (timer.nested == null) {
+          timer.nested = new Timer();
+        }
+        timer = timer.nested;
       }
-      public String getElapsed() {
-        return reformat.apply(this.elapse);
+
+      timer.element = element;
+      timer.secondary = null;
+      timer.failed = false;
+      timer.running = true;
+      timer.started = System.nanoTime();
+
+      return timer;
+    }
+
+    /**
+     * also record this call against the matching endpoint of another set, e.g. the per-technology handles
+     *
+     * @param handles elements indexed by endpoint ordinal, as returned by {@link #register}
+     */
+    public void attribute(final Element[] handles) {
+      if (this.element.ordinal >= 0 && this.element.ordinal < handles.length) {
+        this.secondary = handles[this.element.ordinal];
       }
     }
-    
-    private final Map<String, Element> accessCounts = new TreeMap<>();
-    private Instant lastAccessed = Instant.MIN;
-    
-    public Details() {
-    }
-    
-    public void touch(final Token token) {
-      
-      if (!this.accessCounts.containsKey(token.endpoint)) {
-        this.accessCounts.put(token.endpoint, new Element());
+
+    /**
+     * count this call as an error when closed
+     */
+    public void fail() {
+      this.failed = true;
+    }
+
+    @Override
+    public void close() {
+      if (this.running) {
+        this.running = false;
+        final long elapsed = System.nanoTime() - this.started;
+
+        this.element.record(elapsed, this.failed);
+        if (this.secondary != null) {
+          this.secondary.record(elapsed, this.failed);
+        }
+        this.element = null;
+        this.secondary = null;
       }
-      
-      this.accessCounts.get(token.endpoint).touch(token);
-      
-      this.lastAccessed = token.timestamp;
     }
   }
- 
-  private final Instant started = Instant.now();
-  private final Map<Class<?>, Details> classes = new HashMap<>();
-  
-  private Details forClass(final Class<?> clazz) {
-    if (!this.classes.containsKey(clazz)) {
-      this.classes.put(clazz, new Details());
+
+  public static final class Element {
+    private final String name;
+    private final int ordinal;
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile long accessed = 0L;
+
+    Element(final String name) {
+      this(name, -1);
+    }
+
+    Element(final String name, final int ordinal) {
+      this.name = name;
+      this.ordinal = ordinal;
+    }
+
+    public Timer start() {
+      return Timer.start(this);
+    }
+
+    /**
+     * record a successful call timed elsewhere, e.g. a wait that starts and ends on different threads
+     */
+    public void record(final long nanos) {
+      record(nanos, false);
+    }
+
+    void record(final long nanos, final boolean failed) {
+      (failed ? this.errors : this.successes).increment();
+      this.latency.record(nanos);
+      this.accessed = System.currentTimeMillis();
+    }
+
+    public String getName() {
+      return this.name;
+    }
+
+    public long getSuccesses() {
+      return this.successes.sum();
+    }
+
+    public long getErrors() {
+      return this.errors.sum();
+    }
+
+    public long getAccessed() {
+      return this.accessed;
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+      return this.latency.snapshot();
+    }
+
+    Map<String, Object> serialize() {
+      final LatencyHistogram.Snapshot snapshot = this.latency.snapshot();
+
+      final Map<String, Object> obj = new LinkedHashMap<>();
+      obj.put("count", snapshot.getCount());
+      obj.put("successes", getSuccesses());
+      obj.put("errors", getErrors());
+      obj.put("idle", idleSince.apply(this.accessed));
+      obj.put("elapsed", reformat.apply(Duration.ofNanos(snapshot.getTotalNanos())));
+      obj.put("mean-ms", LatencyHistogram.toMillis(snapshot.getMeanNanos()));
+      obj.put("p50-ms", LatencyHistogram.toMillis(snapshot.percentileNanos(0.50)));
+      obj.put("p90-ms", LatencyHistogram.toMillis(snapshot.percentileNanos(0.90)));
+      obj.put("p99-ms", LatencyHistogram.toMillis(snapshot.percentileNanos(0.99)));
+      obj.put("max-ms", LatencyHistogram.toMillis(snapshot.getMaxNanos()));
+      return obj;
     }
-    return this.classes.get(clazz);
   }
 
+  private final Instant started = Instant.now();
+  private final ConcurrentMap<Class<?>, ConcurrentMap<String, Element>> classes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Element[]> technologies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
   public Diagnostics() {
     logger.me(this);
   }
 
-  @JsonIgnore
-  synchronized private void touch(final Token token) {
-    forClass(token.clazz).touch(token);
+  private ConcurrentMap<String, Element> forClass(final Class<?> clazz) {
+    return this.classes.computeIfAbsent(clazz, key -> new ConcurrentHashMap<>());
+  }
+
+  /**
+   * pre-register the endpoints of a class
+   *
+   * @return elements indexed by the ordinal of the endpoint, to be kept by the caller as handles
+   */
+  public Element[] register(final Class<?> clazz, final Enum<?>... endpoints) {
+    final ConcurrentMap<String, Element> elements = forClass(clazz);
+
+    final Element[] handles = new Element[endpoints.length];
+    for (final Enum<?> endpoint : endpoints) {
+      handles[endpoint.ordinal()] = elements.computeIfAbsent(endpoint.name(), name -> new Element(name, endpoint.ordinal()));
+    }
+    return handles;
+  }
+
+  /**
+   * @return per-technology elements indexed by endpoint ordinal, created on first use of the technology
+   */
+  public Element[] technology(final String technology, final Enum<?>[] endpoints) {
+    final Element[] handles = this.technologies.get(technology);
+
+    return handles != null ? handles : this.technologies.computeIfAbsent(technology, key -> {
+      final Element[] created = new Element[endpoints.length];
+      for (final Enum<?> endpoint : endpoints) {
+        created[endpoint.ordinal()] = new Element(endpoint.name(), endpoint.ordinal());
+      }
+      return created;
+    });
+  }
+
+  public Map<String, Map<String, Element>> technologies() {
+    final Map<String, Map<String, Element>> map = new TreeMap<>();
+    this.technologies.forEach((technology, handles) -> map.put(technology, new TreeMap<String, Element>() {
+      {
+        for (final Element element : handles) {
+          this.put(element.getName(), element);
+        }
+      }
+    }));
+    return map;
+  }
+
+  /**
+   * @param name metric name, lower case with underscores
+   * @param value sampled whenever diagnostics are read
+   */
+  public void gauge(final String name, final LongSupplier value) {
+    this.gauges.put(name, value);
+  }
+
+  public Map<String, Long> gauges() {
+    final Map<String, Long> map = new TreeMap<>();
+    this.gauges.forEach((name, value) -> {
+      try {
+        map.put(name, value.getAsLong());
+      }
+      catch (final Throwable t) {
+        logger.exception(t);
+      }
+    });
+    return map;
+  }
+
+  /**
+   * @return element for the endpoint, registered on first use if it was not known at startup
+   */
+  public Element element(final Class<?> clazz, final String endpoint) {
+    final ConcurrentMap<String, Element> elements = forClass(clazz);
+
+    final Element element = elements.get(endpoint);
+
+    return element != null ? element : elements.computeIfAbsent(endpoint, Element::new);
+  }
+
+  public Map<Class<?>, Map<String, Element>> elements() {
+    final Map<Class<?>, Map<String, Element>> map = new LinkedHashMap<>();
+    this.classes.forEach((clazz, elements) -> map.put(clazz, new TreeMap<>(elements)));
+    return map;
   }
 
-  synchronized public Object serialize() {
-    
+  public Object serialize() {
+
     final Map<String, Object> obj = new LinkedHashMap<String,Object>();
     obj.put("up-at", started.toString());
-    obj.put("up-for",  reformat.apply(elapseNow.apply(this.started)));
-    
-    for (final Entry<Class<?>, Details> entry : this.classes.entrySet()) {
+    obj.put("up-for",  reformat.apply(Duration.between(this.started, Instant.now())));
+
+    for (final Entry<Class<?>, Map<String, Element>> entry : elements().entrySet()) {
+
+      final long lastAccessed = entry.getValue().values().stream().mapToLong(Element::getAccessed).max().orElse(0L);
 
       obj.put(entry.getKey().getSimpleName(), new LinkedHashMap<String,Object>() {
         {
-          this.put("idle-for",  reformat.apply(elapseNow.apply(entry.getValue().lastAccessed)));
-          this.put("accessCounts", entry.getValue().accessCounts);
+          this.put("idle-for", idleSince.apply(lastAccessed));
+          this.put("accessCounts", new LinkedHashMap<String, Object>() {
+            {
+              entry.getValue().forEach((name, element) -> this.put(name, element.serialize()));
+            }
+          });
         }
       });
     }
 
+    obj.put("technologies", new LinkedHashMap<String, Object>() {
+      {
+        technologies().forEach((technology, elements) -> this.put(technology, new LinkedHashMap<String, Object>() {
+          {
+            elements.forEach((name, element) -> this.put(name, element.serialize()));
+          }
+        }));
+      }
+    });
+
+    obj.put("gauges", gauges());
+
     return obj;
   }
-  
-  public Token getToken(final Class<?> clazz, final String endpoint) {
-    return new Token(clazz, endpoint);
-  }
-}
\ No newline at end of file
+}
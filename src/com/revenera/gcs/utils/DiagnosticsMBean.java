@@ -0,0 +1,114 @@
+package com.revenera.gcs.utils;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Read-only JMX view of {@link Diagnostics}, registered as com.revenera.gcs:type=Diagnostics. Attributes are the
+ * names produced by {@link Metrics#flatten}, so endpoints and gauges added after startup show up as well.
+ */
+public final class DiagnosticsMBean implements DynamicMBean {
+
+  private static final Log logger = Log.create(DiagnosticsMBean.class);
+
+  static final String object_name = "com.revenera.gcs:type=Diagnostics";
+
+  private final Diagnostics diagnostics;
+
+  public DiagnosticsMBean(final Diagnostics diagnostics) {
+    this.diagnostics = diagnostics;
+  }
+
+  @Override
+  public Object getAttribute(final String attribute) throws AttributeNotFoundException {
+    final Number value = Metrics.flatten(this.diagnostics).get(attribute);
+
+    if (value == null) {
+      throw new AttributeNotFoundException(attribute);
+    }
+    return value.doubleValue();
+  }
+
+  @Override
+  public AttributeList getAttributes(final String[] attributes) {
+    final Map<String, Number> values = Metrics.flatten(this.diagnostics);
+
+    final AttributeList list = new AttributeList();
+    for (final String attribute : attributes) {
+      final Number value = values.get(attribute);
+      if (value != null) {
+        list.add(new Attribute(attribute, value.doubleValue()));
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public void setAttribute(final Attribute attribute) throws AttributeNotFoundException {
+    throw new AttributeNotFoundException(attribute.getName() + " is read only");
+  }
+
+  @Override
+  public AttributeList setAttributes(final AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  @Override
+  public Object invoke(final String actionName, final Object[] params, final String[] signature) throws ReflectionException {
+    throw new ReflectionException(new NoSuchMethodException(actionName));
+  }
+
+  @Override
+  public MBeanInfo getMBeanInfo() {
+    final MBeanAttributeInfo[] attributes = Metrics.flatten(this.diagnostics)
+            .keySet().stream()
+            .map(name -> new MBeanAttributeInfo(name, Double.class.getName(), name, true, false, false))
+            .toArray(MBeanAttributeInfo[]::new);
+
+    return new MBeanInfo(DiagnosticsMBean.class.getName(),
+                         "service diagnostics",
+                         attributes,
+                         null,
+                         new MBeanOperationInfo[0],
+                         null);
+  }
+
+  public static void register(final Diagnostics diagnostics) {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name = new ObjectName(object_name);
+
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(new DiagnosticsMBean(diagnostics), name);
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+    }
+  }
+
+  public static void unregister() {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name = new ObjectName(object_name);
+
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+    }
+  }
+}
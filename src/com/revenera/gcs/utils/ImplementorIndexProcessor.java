@@ -0,0 +1,108 @@
+package com.revenera.gcs.utils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes the implementor index at compile time, META-INF/services/com.revenera.gcs.implementor.AbstractImplementor
+ * listing the classes annotated with {@link GeneratorImplementor}, which the application loads with a
+ * ServiceLoader instead of scanning the implementor package.
+ *
+ * An annotated class that cannot be instantiated that way, abstract, not public, without a public no-argument
+ * constructor or not an AbstractImplementor, fails the build. Run by build.xml with
+ * -processor com.revenera.gcs.utils.ImplementorIndexProcessor.
+ */
+@SupportedAnnotationTypes(ImplementorIndexProcessor.annotation)
+public final class ImplementorIndexProcessor extends AbstractProcessor {
+
+  static final String annotation = "com.revenera.gcs.utils.GeneratorImplementor";
+  static final String service = "com.revenera.gcs.implementor.AbstractImplementor";
+  static final String index = "META-INF/services/" + service;
+
+  private final Set<String> implementors = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment round) {
+    final TypeElement type = this.processingEnv.getElementUtils().getTypeElement(annotation);
+    final TypeElement base = this.processingEnv.getElementUtils().getTypeElement(service);
+
+    if (type != null) {
+      for (final Element element : round.getElementsAnnotatedWith(type)) {
+        if (check(element, base)) {
+          this.implementors.add(this.processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+        }
+      }
+    }
+
+    if (round.processingOver() && !this.implementors.isEmpty()) {
+      write();
+    }
+    return false;
+  }
+
+  private boolean check(final Element element, final TypeElement base) {
+    final String problem;
+
+    if (element.getKind() != ElementKind.CLASS) {
+      problem = "only classes can be implementors";
+    }
+    else if (!element.getModifiers().contains(Modifier.PUBLIC) || element.getModifiers().contains(Modifier.ABSTRACT)) {
+      problem = "an implementor must be public and not abstract";
+    }
+    else if (base != null && !this.processingEnv.getTypeUtils().isSubtype(element.asType(), base.asType())) {
+      problem = "an implementor must extend " + service;
+    }
+    else if (ElementFilter.constructorsIn(element.getEnclosedElements()).stream()
+                          .noneMatch(ImplementorIndexProcessor::isPublicNoArgument)) {
+      problem = "an implementor needs a public no-argument constructor";
+    }
+    else {
+      return true;
+    }
+
+    this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, problem, element);
+    return false;
+  }
+
+  private static boolean isPublicNoArgument(final ExecutableElement constructor) {
+    return constructor.getModifiers().contains(Modifier.PUBLIC) && constructor.getParameters().isEmpty();
+  }
+
+  private void write() {
+    try {
+      final FileObject file = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", index);
+
+      try (final Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+        for (final String implementor : this.implementors) {
+          writer.write(implementor);
+          writer.write('\n');
+        }
+      }
+    }
+    catch (final IOException e) {
+      this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "cannot write " + index + " | " + e.getMessage());
+    }
+  }
+}
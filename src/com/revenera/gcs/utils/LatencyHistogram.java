@@ -0,0 +1,144 @@
+package com.revenera.gcs.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket log-linear histogram of durations in nanoseconds.
+ *
+ * Each power of two is split into 16 linear sub-buckets, so a recorded value is reported within 1/16 (6.25%)
+ * of its real value. Values above 2^40ns (~18 minutes) land in the last bucket. Recording is a couple of
+ * atomic increments and never blocks; {@link #snapshot()} copies the buckets without stopping writers.
+ */
+public final class LatencyHistogram {
+
+  static final int sub_bucket_bits = 4;
+  static final int sub_buckets = 1 << sub_bucket_bits;
+  static final int max_exponent = 40;
+  static final int bucket_count = (max_exponent - sub_bucket_bits + 2) * sub_buckets;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(bucket_count);
+  private final LongAdder total = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Long::max, 0L);
+
+  static int index(final long nanos) {
+    final long value = Math.max(0L, nanos);
+
+    if (value < sub_buckets) {
+      return (int) value;
+    }
+
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > max_exponent) {
+      return bucket_count - 1;
+    }
+
+    final int sub = (int) (value >>> (exponent - sub_bucket_bits)) & (sub_buckets - 1);
+
+    return (exponent - sub_bucket_bits + 1) * sub_buckets + sub;
+  }
+
+  /**
+   * @return highest value that maps to the bucket
+   */
+  static long upperBound(final int index) {
+    if (index < sub_buckets) {
+      return index;
+    }
+
+    final int exponent = index / sub_buckets + sub_bucket_bits - 1;
+    final long sub = index % sub_buckets;
+    final long width = 1L << (exponent - sub_bucket_bits);
+
+    return (1L << exponent) + (sub + 1) * width - 1;
+  }
+
+  public void record(final long nanos) {
+    this.buckets.incrementAndGet(index(nanos));
+    this.total.add(nanos);
+    this.max.accumulate(nanos);
+  }
+
+  public Snapshot snapshot() {
+    final long[] counts = new long[bucket_count];
+    long count = 0;
+
+    for (int i = 0; i < bucket_count; i++) {
+      counts[i] = this.buckets.get(i);
+      count += counts[i];
+    }
+
+    return new Snapshot(counts, count, this.total.sum(), this.max.get());
+  }
+
+  /**
+   * point in time copy, percentiles are computed against the copied buckets only
+   */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    Snapshot(final long[] counts, final long count, final long total, final long max) {
+      this.counts = counts;
+      this.count = count;
+      this.total = total;
+      this.max = max;
+    }
+
+    public long getCount() {
+      return this.count;
+    }
+
+    public long getTotalNanos() {
+      return this.total;
+    }
+
+    public long getMaxNanos() {
+      return this.max;
+    }
+
+    public long getMeanNanos() {
+      return this.count == 0 ? 0L : this.total / this.count;
+    }
+
+    /**
+     * @param fraction 0.5 for p50, 0.99 for p99
+     */
+    public long percentileNanos(final double fraction) {
+      if (this.count == 0) {
+        return 0L;
+      }
+
+      final long rank = Math.max(1L, (long) Math.ceil(fraction * this.count));
+      long seen = 0;
+
+      for (int i = 0; i < this.counts.length; i++) {
+        seen += this.counts[i];
+        if (seen >= rank) {
+          return Math.min(upperBound(i), this.max);
+        }
+      }
+      return this.max;
+    }
+
+    /**
+     * @return number of recorded values whose bucket lies entirely at or below the bound
+     */
+    public long countAtOrBelow(final long nanos) {
+      long seen = 0;
+
+      for (int i = 0; i < this.counts.length && upperBound(i) <= nanos; i++) {
+        seen += this.counts[i];
+      }
+      return seen;
+    }
+  }
+
+  public static double toMillis(final long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -1,99 +1,157 @@
 package com.revenera.gcs.utils;
 
-import org.apache.commons.io.FileUtils;
-
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.GregorianCalendar;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 public final class Log {
 
-  static final DateFormat df = new SimpleDateFormat("dd-MMM-yyyy hh:mm:ss.zzz");
+  static final DateTimeFormatter df = DateTimeFormatter.ofPattern("dd-MMM-yyyy hh:mm:ss.zzz", Locale.ENGLISH);
+
+  /** caller location is opt-in, per logger or for all loggers with -Drevenera.log.location=true */
+  static final boolean default_location = Settings.getBoolean("revenera.log.location", false);
 
-  static AtomicReference<Log.Level> loggingLevel = new AtomicReference<>(Log.Level.trace);
   private final Class<?> type;
+  private final boolean location;
+
+  /** effective level, valid while its generation matches {@link LogLevels#generation} */
+  private static final class Threshold {
+    final int generation;
+    final int value;
+
+    Threshold(final int generation, final int value) {
+      this.generation = generation;
+      this.value = value;
+    }
+  }
 
-  private Log(final Class<?> cls) {
+  private Threshold threshold = new Threshold(-1, 0);
+
+  private Log(final Class<?> cls, final boolean location) {
     this.type = cls;
+    this.location = location;
+  }
+
+  public boolean willLog(final Log.Level level) {
+    final int generation = LogLevels.generation;
+
+    Threshold current = this.threshold;
+    if (current.generation != generation) {
+      current = new Threshold(generation, LogLevels.effective(this.type.getName()).value);
+      this.threshold = current;
+    }
+    return level.value >= current.value;
   }
 
-  public static boolean willLog(final Log.Level level) {
-    return level.value >= loggingLevel.get().value;
+  public Log.Level getLevel() {
+    return LogLevels.effective(this.type.getName());
   }
 
+  /**
+   * @return previous root level
+   */
   public static Log.Level setLoggingLevel(final Log.Level level) {
-    return loggingLevel.getAndSet(level);
+    return LogLevels.setRoot(level);
   }
 
   public static Log create(final Class<?> type) {
-    return new Log(type);
+    return new Log(type, default_location);
+  }
+
+  /**
+   * @param location include class.method(line) of the caller in every line
+   */
+  public static Log create(final Class<?> type, final boolean location) {
+    return new Log(type, location);
   }
 
   public Class<?> type() {
     return this.type;
   }
 
-  public void dump(final String content) {
-    final String root = "c:\\revenera";
+  /**
+   * flush buffered lines and stop the writer, called when the context goes down
+   */
+  public static void shutdown() {
+    LogAppender.instance().close();
+  }
 
-    if (Files.exists(Paths.get(root))) {
-      try {
-        final File file = Paths.get(root, LocalDate.now() + "-revenera.log").toAbsolutePath().toFile();
+  public void dump(final String content) {
+    LogAppender.instance().append(content);
+  }
 
-        FileUtils.writeLines(file, Collections.singletonList(content), true);
-      }
-      catch (IOException e) {
-        exception(e);
+  private void emit(final Level level, final String message) {
+    final StringBuilder bfr = new StringBuilder(64 + message.length())
+            .append(Context.getTime())
+            .append(' ')
+            .append(level.label)
+            .append(" [")
+            .append(Thread.currentThread().getName())
+            .append("] {")
+            .append(type.getSimpleName())
+            .append("} ");
+
+    if (this.location) {
+      final StackTraceElement frame = Context.caller();
+
+      if (frame != null) {
+        bfr.append(Utils.abbreviatePackageName(frame.getClassName(), 30))
+           .append('.')
+           .append(frame.getMethodName())
+           .append('(')
+           .append(frame.getLineNumber())
+           .append(") ");
       }
     }
+
+    dump(bfr.append(message).toString());
   }
 
   public void log(final Level level, final String message) {
     if (willLog(level)) {
-      final Context context = new Context();
-
-      final String content = String.format("%s %s [%s] {%s} %s.%s(%d) %s",
-                                           context.getTime(),
-                                           level.toString().toUpperCase(),
-                                           Thread.currentThread().getName(),
-                                           type.getSimpleName(),
-                                           Utils.abbreviatePackageName(context.getClassName(), 30),
-                                           context.getMethod(),
-                                           context.getLine(),
-                                           message);
-
-      System.out.println(content);
+      emit(level, message);
+    }
+  }
 
-      dump(content);
+  /**
+   * @param message only evaluated when the level is enabled
+   */
+  public void log(final Level level, final Supplier<String> message) {
+    if (willLog(level)) {
+      emit(level, message.get());
     }
   }
 
   public void yaml(final Level level, final Object obj) {
-    try {
-      log(level, Utils.safeSerializeYaml(obj));
-    }
-    catch (final Throwable e) {
-      exception(e);
+    if (willLog(level)) {
+      try {
+        emit(level, Utils.safeSerializeYaml(obj));
+      }
+      catch (final Throwable e) {
+        exception(e);
+      }
     }
   }
 
   public void json(final Level level, final Object obj) {
-    try {
-      log(level, Utils.safeSerializeJsonIndented(obj));
-    }
-    catch (final Throwable e) {
-      exception(e);
+    if (willLog(level)) {
+      try {
+        emit(level, Utils.safeSerializeJsonIndented(obj));
+      }
+      catch (final Throwable e) {
+        exception(e);
+      }
     }
   }
 
@@ -124,8 +182,9 @@ public final class Log {
   }
 
   public void array(final Level level, final Object... params) {
-
-    log(level, Arrays.stream(params).map(Object::toString).collect(Collectors.joining(" | ")));
+    if (willLog(level)) {
+      emit(level, Arrays.stream(params).map(String::valueOf).collect(Collectors.joining(" | ")));
+    }
   }
 
   /**
@@ -142,29 +201,106 @@ public final class Log {
 
     public final int value;
 
+    final String label = name().toUpperCase(Locale.ENGLISH);
+
     Level(final int value) {
       this.value = value;
     }
   }
 
-  static class Context {
-    final StackTraceElement element = new Throwable().getStackTrace()[3];
-    final Calendar calendar = GregorianCalendar.getInstance();
+  static final class Context {
+
+    /** the timestamp has second resolution, so it is rendered once per second */
+    private static final class Second {
+      final long epoch;
+      final String text;
+
+      Second(final long epoch) {
+        this.epoch = epoch;
+        this.text = df.format(ZonedDateTime.ofInstant(Instant.ofEpochSecond(epoch), ZoneId.systemDefault()));
+      }
+    }
+
+    private static volatile Second second = new Second(System.currentTimeMillis() / 1000);
+
+    static String getTime() {
+      final long now = System.currentTimeMillis() / 1000;
 
-    String getTime() {
-      return df.format(this.calendar.getTime());
+      Second current = second;
+      if (current.epoch != now) {
+        current = new Second(now);
+        second = current;
+      }
+      return current.text;
     }
 
-    String getClassName() {
-      return this.element.getClassName();
+    /** StackWalker.getInstance().walk(...) and StackFrame accessors, when running on java 9+ */
+    private static final MethodHandle walk;
+    private static final MethodHandle frameClassName;
+    private static final MethodHandle frameElement;
+
+    static {
+      MethodHandle w = null, n = null, e = null;
+      try {
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        final Class<?> walkerType = Class.forName("java.lang.StackWalker");
+        final Class<?> frameType = Class.forName("java.lang.StackWalker$StackFrame");
+
+        w = lookup.findVirtual(walkerType, "walk", MethodType.methodType(Object.class, Function.class))
+                  .bindTo(walkerType.getMethod("getInstance").invoke(null));
+        n = lookup.findVirtual(frameType, "getClassName", MethodType.methodType(String.class));
+        e = lookup.findVirtual(frameType, "toStackTraceElement", MethodType.methodType(StackTraceElement.class));
+      }
+      catch (final Throwable t) {
+        // java 8, fall back to a captured stack trace
+      }
+      walk = w;
+      frameClassName = n;
+      frameElement = e;
     }
 
-    String getMethod() {
-      return this.element.getMethodName();
+    static boolean isLogFrame(final String className) {
+      return className.startsWith(Log.class.getName());
     }
 
-    int getLine() {
-      return this.element.getLineNumber();
+    private static final Function<Stream<Object>, Object> firstCaller = frames -> frames
+            .filter(frame -> {
+              try {
+                return !isLogFrame((String) frameClassName.invoke(frame));
+              }
+              catch (final Throwable t) {
+                throw new RuntimeException(t);
+              }
+            })
+            .findFirst()
+            .map(frame -> {
+              try {
+                return (StackTraceElement) frameElement.invoke(frame);
+              }
+              catch (final Throwable t) {
+                throw new RuntimeException(t);
+              }
+            })
+            .orElse(null);
+
+    /**
+     * @return first frame outside of Log, walking only as far as needed when StackWalker is available
+     */
+    static StackTraceElement caller() {
+      try {
+        if (walk != null) {
+          return (StackTraceElement) walk.invoke(firstCaller);
+        }
+        for (final StackTraceElement frame : new Throwable().getStackTrace()) {
+          if (!isLogFrame(frame.getClassName())) {
+            return frame;
+          }
+        }
+      }
+      catch (final Throwable t) {
+        // location is best effort
+      }
+      return null;
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,291 @@
+package com.revenera.gcs.utils;
+
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous appender behind {@link Log}.
+ *
+ * Request threads only enqueue the formatted line into a bounded buffer; a single writer thread drains it in
+ * batches to the console and to a kept-open {@link FileChannel}. Files are rolled daily and whenever they
+ * exceed the configured size.
+ *
+ * settings (system properties):
+ *   revenera.log.directory       log file directory, created if set explicitly (default c:\revenera | /var/log/revenera, used only if present)
+ *   revenera.log.console         echo to stdout (default true)
+ *   revenera.log.buffer          buffer capacity in lines (default 8192)
+ *   revenera.log.batch           max lines per write (default 512)
+ *   revenera.log.flush.ms        max time a line waits before being written (default 200)
+ *   revenera.log.file.max.bytes  roll when the current file exceeds this size (default 64MB)
+ *   revenera.log.overflow        drop | block, when the buffer is full (default drop)
+ */
+public final class LogAppender {
+
+  public enum Overflow {
+    drop,
+    block
+  }
+
+  static final String file_suffix = "-revenera";
+
+  private static final class Holder {
+    static final LogAppender instance = new LogAppender();
+  }
+
+  public static LogAppender instance() {
+    return Holder.instance;
+  }
+
+  private final ArrayBlockingQueue<String> buffer;
+  private final Overflow overflow;
+  private final boolean console;
+  private final Path directory;
+  private final int batchSize;
+  private final long flushMillis;
+  private final long maxFileSize;
+
+  private final AtomicLong appended = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong rolled = new AtomicLong();
+
+  private final Thread writer;
+  private final Thread hook;
+  private volatile boolean running = true;
+
+  /** writer thread state */
+  private FileChannel channel;
+  private LocalDate day;
+  private int index;
+  private long size;
+  private long reportedDrops;
+
+  private LogAppender() {
+    this.buffer = new ArrayBlockingQueue<>(Math.max(1, Settings.getInt("revenera.log.buffer", 8192)));
+    this.overflow = Settings.getEnum("revenera.log.overflow", Overflow.drop);
+    this.console = Settings.getBoolean("revenera.log.console", true);
+    this.batchSize = Math.max(1, Settings.getInt("revenera.log.batch", 512));
+    this.flushMillis = Math.max(1, Settings.getLong("revenera.log.flush.ms", 200));
+    this.maxFileSize = Math.max(1, Settings.getLong("revenera.log.file.max.bytes", 64L * 1024 * 1024));
+    this.directory = resolveDirectory();
+
+    this.writer = new Thread(this::drain, "revenera-log-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+
+    this.hook = new Thread(this::close, "revenera-log-shutdown");
+    Runtime.getRuntime().addShutdownHook(this.hook);
+  }
+
+  private static Path resolveDirectory() {
+    try {
+      final Optional<String> configured = Settings.find("revenera.log.directory");
+
+      if (configured.isPresent()) {
+        return Files.createDirectories(Paths.get(configured.get()));
+      }
+
+      final Path fallback = Paths.get(SystemUtils.IS_OS_WINDOWS ? "c:\\revenera" : "/var/log/revenera");
+
+      return Files.isDirectory(fallback) ? fallback : null;
+    }
+    catch (final IOException e) {
+      e.printStackTrace(System.err);
+      return null;
+    }
+  }
+
+  /**
+   * @param line formatted log line
+   * @return false if the line was dropped
+   */
+  public boolean append(final String line) {
+    if (!this.running) {
+      System.out.println(line);
+      return false;
+    }
+
+    this.appended.incrementAndGet();
+
+    if (this.overflow == Overflow.block) {
+      try {
+        this.buffer.put(line);
+        return true;
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    else if (this.buffer.offer(line)) {
+      return true;
+    }
+
+    this.dropped.incrementAndGet();
+    return false;
+  }
+
+  private void drain() {
+    final List<String> batch = new ArrayList<>(this.batchSize);
+
+    while (this.running || !this.buffer.isEmpty()) {
+      try {
+        final String first = this.buffer.poll(this.flushMillis, TimeUnit.MILLISECONDS);
+
+        if (first != null) {
+          batch.add(first);
+          this.buffer.drainTo(batch, this.batchSize - 1);
+        }
+
+        final long drops = this.dropped.get();
+        if (drops != this.reportedDrops) {
+          batch.add(String.format("log buffer full | %d lines dropped", drops - this.reportedDrops));
+          this.reportedDrops = drops;
+        }
+
+        if (!batch.isEmpty()) {
+          write(batch);
+          batch.clear();
+        }
+      }
+      catch (final InterruptedException e) {
+        // keep draining until stopped
+      }
+      catch (final Throwable t) {
+        t.printStackTrace(System.err);
+        batch.clear();
+      }
+    }
+
+    closeChannel();
+  }
+
+  private void write(final List<String> batch) throws IOException {
+    final StringBuilder bfr = new StringBuilder(batch.size() * 128);
+
+    for (final String line : batch) {
+      bfr.append(line).append(System.lineSeparator());
+    }
+
+    if (this.console) {
+      System.out.print(bfr);
+      System.out.flush();
+    }
+
+    if (this.directory != null) {
+      final ByteBuffer bytes = ByteBuffer.wrap(bfr.toString().getBytes(StandardCharsets.UTF_8));
+
+      roll(bytes.remaining());
+
+      while (bytes.hasRemaining()) {
+        this.size += this.channel.write(bytes);
+      }
+    }
+  }
+
+  Path file(final LocalDate date, final int index) {
+    return this.directory.resolve(date + file_suffix + (index == 0 ? "" : "." + index) + ".log");
+  }
+
+  private void roll(final int incoming) throws IOException {
+    final LocalDate today = LocalDate.now();
+
+    final boolean expired = !today.equals(this.day);
+    final boolean full = this.size > 0 && this.size + incoming > this.maxFileSize;
+
+    if (this.channel == null || expired || full) {
+      if (this.channel != null) {
+        closeChannel();
+        this.rolled.incrementAndGet();
+      }
+
+      if (expired) {
+        this.day = today;
+        this.index = 0;
+      }
+      else if (full) {
+        this.index += 1;
+      }
+
+      // skip files already filled by a previous run
+      while (Files.exists(file(this.day, this.index)) && Files.size(file(this.day, this.index)) >= this.maxFileSize) {
+        this.index += 1;
+      }
+
+      this.channel = FileChannel.open(file(this.day, this.index),
+                                      StandardOpenOption.CREATE,
+                                      StandardOpenOption.WRITE,
+                                      StandardOpenOption.APPEND);
+      this.size = this.channel.size();
+    }
+  }
+
+  private void closeChannel() {
+    if (this.channel != null) {
+      try {
+        this.channel.close();
+      }
+      catch (final IOException e) {
+        e.printStackTrace(System.err);
+      }
+      this.channel = null;
+    }
+  }
+
+  /**
+   * stop accepting lines, write out what is buffered and release the file
+   */
+  public void close() {
+    if (this.running) {
+      this.running = false;
+      try {
+        this.writer.join(TimeUnit.SECONDS.toMillis(5));
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    if (Thread.currentThread() != this.hook) {
+      try {
+        Runtime.getRuntime().removeShutdownHook(this.hook);
+      }
+      catch (final IllegalStateException e) {
+        // the JVM is shutting down already, the hook runs or has run
+      }
+    }
+  }
+
+  public Path getDirectory() {
+    return this.directory;
+  }
+
+  public long getAppended() {
+    return this.appended.get();
+  }
+
+  public long getDropped() {
+    return this.dropped.get();
+  }
+
+  public long getRolled() {
+    return this.rolled.get();
+  }
+
+  public int getPending() {
+    return this.buffer.size();
+  }
+}
@@ -0,0 +1,265 @@
+package com.revenera.gcs.utils;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hierarchical logging levels.
+ *
+ * A level set for a class or package name applies to everything below it, anything not configured falls back to
+ * the root level (-Drevenera.log.level, default trace). Every change bumps {@link #generation}; each {@link Log}
+ * caches its effective level and re-resolves it only when the generation moves.
+ *
+ * Levels are read from a properties file (WEB-INF/logging.properties), which is polled and reloaded when it
+ * changes, and can be changed at runtime through the com.revenera.gcs:type=LogLevels MBean. A reload of the file
+ * replaces whatever was set through the MBean.
+ */
+public final class LogLevels {
+
+  static final String root_name = "root";
+
+  private static final Log logger = Log.create(LogLevels.class);
+
+  private static final Map<String, Log.Level> levels = new ConcurrentHashMap<>();
+
+  private static volatile Log.Level root = Settings.getEnum("revenera.log.level", Log.Level.trace);
+
+  /** bumped on every change, read once per {@link Log#willLog} */
+  static volatile int generation = 0;
+
+  private static Path file;
+  private static long lastModified;
+  private static ScheduledExecutorService watcher;
+  private static ObjectName registered;
+
+  private LogLevels() {
+  }
+
+  /**
+   * @param name class name
+   * @return level configured for the closest enclosing class or package, or the root level
+   */
+  public static Log.Level effective(final String name) {
+    String current = name;
+
+    while (true) {
+      final Log.Level level = levels.get(current);
+      if (level != null) {
+        return level;
+      }
+
+      final int index = Math.max(current.lastIndexOf('.'), current.lastIndexOf('$'));
+      if (index < 0) {
+        return root;
+      }
+      current = current.substring(0, index);
+    }
+  }
+
+  public static Log.Level getRoot() {
+    return root;
+  }
+
+  public static synchronized Log.Level setRoot(final Log.Level level) {
+    final Log.Level previous = root;
+    root = level;
+    generation++;
+    return previous;
+  }
+
+  public static synchronized void set(final String name, final Log.Level level) {
+    if (root_name.equals(name)) {
+      setRoot(level);
+    }
+    else {
+      levels.put(name, level);
+      generation++;
+    }
+  }
+
+  public static synchronized void clear(final String name) {
+    if (levels.remove(name) != null) {
+      generation++;
+    }
+  }
+
+  public static Map<String, Log.Level> snapshot() {
+    final Map<String, Log.Level> map = new TreeMap<>(levels);
+    map.put(root_name, root);
+    return map;
+  }
+
+  static Log.Level parse(final String value) {
+    return Log.Level.valueOf(value.trim().toLowerCase(Locale.ENGLISH));
+  }
+
+  /**
+   * replace the current configuration with the content of the file
+   *
+   * @param path properties file, "root=info" and "com.revenera.gcs.implementor=trace" style entries
+   */
+  public static synchronized void load(final Path path) throws IOException {
+    final Properties properties = new Properties();
+
+    try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+
+    final Map<String, Log.Level> loaded = new TreeMap<>();
+    for (final String name : properties.stringPropertyNames()) {
+      loaded.put(name.trim(), parse(properties.getProperty(name)));
+    }
+
+    Log.Level rootLevel = loaded.remove(root_name);
+    if (rootLevel == null) {
+      rootLevel = Settings.getEnum("revenera.log.level", Log.Level.trace);
+    }
+
+    levels.clear();
+    levels.putAll(loaded);
+    root = rootLevel;
+    generation++;
+
+    logger.array(Log.Level.info, "logging levels", path, snapshot());
+  }
+
+  /**
+   * load the file if it exists and poll it for changes
+   */
+  public static synchronized void watch(final Path path, final long periodSeconds) {
+    file = path;
+    lastModified = 0L;
+
+    reloadIfChanged();
+
+    if (watcher == null) {
+      watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "revenera-log-levels");
+        thread.setDaemon(true);
+        return thread;
+      });
+      watcher.scheduleWithFixedDelay(LogLevels::reloadIfChanged, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+  }
+
+  static synchronized void reloadIfChanged() {
+    try {
+      if (file != null && Files.isRegularFile(file)) {
+        final long modified = Files.getLastModifiedTime(file).toMillis();
+
+        if (modified != lastModified) {
+          lastModified = modified;
+          load(file);
+        }
+      }
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+    }
+  }
+
+  public static synchronized void stop() {
+    if (watcher != null) {
+      watcher.shutdownNow();
+      watcher = null;
+    }
+    unregister();
+  }
+
+  /**
+   * admin operations over JMX
+   */
+  public interface LogLevelsMBean {
+    String getRootLevel();
+
+    void setRootLevel(String level);
+
+    String[] getLevels();
+
+    void setLevel(String name, String level);
+
+    void clearLevel(String name);
+
+    void reload() throws IOException;
+  }
+
+  static final class Admin implements LogLevelsMBean {
+    @Override
+    public String getRootLevel() {
+      return root.name();
+    }
+
+    @Override
+    public void setRootLevel(final String level) {
+      setRoot(parse(level));
+    }
+
+    @Override
+    public String[] getLevels() {
+      return snapshot().entrySet().stream().map(entry -> entry.getKey() + "=" + entry.getValue()).toArray(String[]::new);
+    }
+
+    @Override
+    public void setLevel(final String name, final String level) {
+      set(name, parse(level));
+    }
+
+    @Override
+    public void clearLevel(final String name) {
+      clear(name);
+    }
+
+    @Override
+    public void reload() throws IOException {
+      synchronized (LogLevels.class) {
+        if (file != null) {
+          load(file);
+        }
+      }
+    }
+  }
+
+  public static synchronized void register() {
+    try {
+      if (registered == null) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName("com.revenera.gcs:type=LogLevels");
+
+        if (!server.isRegistered(name)) {
+          server.registerMBean(new StandardMBean(new Admin(), LogLevelsMBean.class), name);
+          registered = name;
+        }
+      }
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+    }
+  }
+
+  static synchronized void unregister() {
+    try {
+      if (registered != null) {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(registered);
+        registered = null;
+      }
+    }
+    catch (final Throwable t) {
+      logger.exception(t);
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.revenera.gcs.utils;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders {@link Diagnostics} and JVM statistics, as Prometheus text exposition (version 0.0.4) and as a flat
+ * name -> value map for JMX.
+ */
+public final class Metrics {
+
+  public static final String content_type = "text/plain; version=0.0.4; charset=utf-8";
+
+  /** histogram bucket bounds exported to Prometheus, in seconds */
+  static final double[] bounds = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+  private Metrics() {
+  }
+
+  static String escape(final String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  static String number(final double value) {
+    return value == Math.rint(value) && Math.abs(value) < 1e15 ? String.valueOf((long) value) : String.valueOf(value);
+  }
+
+  private static void header(final StringBuilder bfr, final String name, final String type, final String help) {
+    bfr.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    bfr.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(final StringBuilder bfr, final String name, final String labels, final double value) {
+    bfr.append(name);
+    if (!labels.isEmpty()) {
+      bfr.append('{').append(labels).append('}');
+    }
+    bfr.append(' ').append(number(value)).append('\n');
+  }
+
+  private static void endpoints(final StringBuilder bfr,
+                                final String prefix,
+                                final String help,
+                                final Map<String, Map<String, Diagnostics.Element>> groups) {
+
+    final String requests = prefix + "_requests_total";
+    final String duration = prefix + "_request_duration_seconds";
+
+    header(bfr, requests, "counter", help + " requests by outcome");
+    groups.forEach((group, elements) -> elements.forEach((name, element) -> {
+      final String labels = String.format("group=\"%s\",operation=\"%s\"", escape(group), escape(name));
+      sample(bfr, requests, labels + ",outcome=\"success\"", element.getSuccesses());
+      sample(bfr, requests, labels + ",outcome=\"error\"", element.getErrors());
+    }));
+
+    header(bfr, duration, "histogram", help + " request latency");
+    groups.forEach((group, elements) -> elements.forEach((name, element) -> {
+      final String labels = String.format("group=\"%s\",operation=\"%s\"", escape(group), escape(name));
+      final LatencyHistogram.Snapshot snapshot = element.getLatency();
+
+      for (final double bound : bounds) {
+        sample(bfr,
+               duration + "_bucket",
+               labels + ",le=\"" + number(bound) + "\"",
+               snapshot.countAtOrBelow((long) (bound * TimeUnit.SECONDS.toNanos(1))));
+      }
+      sample(bfr, duration + "_bucket", labels + ",le=\"+Inf\"", snapshot.getCount());
+      sample(bfr, duration + "_sum", labels, snapshot.getTotalNanos() / (double) TimeUnit.SECONDS.toNanos(1));
+      sample(bfr, duration + "_count", labels, snapshot.getCount());
+    }));
+  }
+
+  public static String prometheus(final Diagnostics diagnostics) {
+    final StringBuilder bfr = new StringBuilder(16 * 1024);
+
+    final Map<String, Map<String, Diagnostics.Element>> classes = new LinkedHashMap<>();
+    diagnostics.elements().forEach((clazz, elements) -> classes.put(clazz.getSimpleName(), elements));
+
+    endpoints(bfr, "revenera", "service", classes);
+    endpoints(bfr, "revenera_technology", "per license technology", diagnostics.technologies());
+
+    diagnostics.gauges().forEach((name, value) -> {
+      header(bfr, "revenera_" + name, "gauge", name.replace('_', ' '));
+      sample(bfr, "revenera_" + name, "", value);
+    });
+
+    final Set<String> declared = new HashSet<>();
+    jvm().forEach((name, value) -> {
+      final int brace = name.indexOf('{');
+      final String metric = brace < 0 ? name : name.substring(0, brace);
+      final String labels = brace < 0 ? "" : name.substring(brace + 1, name.length() - 1);
+
+      if (declared.add(metric)) {
+        header(bfr, metric, metric.endsWith("_total") ? "counter" : "gauge", metric.replace('_', ' '));
+      }
+      sample(bfr, metric, labels, value.doubleValue());
+    });
+
+    return bfr.toString();
+  }
+
+  /**
+   * @return JVM heap, GC, thread and uptime figures in Prometheus naming
+   */
+  static Map<String, Number> jvm() {
+    final Map<String, Number> map = new LinkedHashMap<>();
+
+    final MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    final MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+
+    map.put("jvm_memory_bytes_used{area=\"heap\"}", heap.getUsed());
+    map.put("jvm_memory_bytes_used{area=\"nonheap\"}", nonHeap.getUsed());
+    map.put("jvm_memory_bytes_committed{area=\"heap\"}", heap.getCommitted());
+    map.put("jvm_memory_bytes_committed{area=\"nonheap\"}", nonHeap.getCommitted());
+    map.put("jvm_memory_bytes_max{area=\"heap\"}", heap.getMax());
+
+    for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      final String label = "{gc=\"" + escape(gc.getName()) + "\"}";
+      map.put("jvm_gc_collections_total" + label, gc.getCollectionCount());
+      map.put("jvm_gc_collection_seconds_total" + label, gc.getCollectionTime() / 1000.0);
+    }
+
+    map.put("jvm_threads_current", ManagementFactory.getThreadMXBean().getThreadCount());
+    map.put("jvm_uptime_seconds", ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    map.put("jvm_available_processors", Runtime.getRuntime().availableProcessors());
+
+    return map;
+  }
+
+  /**
+   * @return every figure under a dotted name, e.g. LicenseGeneratorServiceImpl.generateLicense.p99Millis
+   */
+  public static Map<String, Number> flatten(final Diagnostics diagnostics) {
+    final Map<String, Number> map = new LinkedHashMap<>();
+
+    diagnostics.elements().forEach((clazz, elements) -> elements.forEach((name, element) -> {
+      flatten(map, clazz.getSimpleName() + "." + name, element);
+    }));
+
+    diagnostics.technologies().forEach((technology, elements) -> elements.forEach((name, element) -> {
+      flatten(map, "technology." + technology + "." + name, element);
+    }));
+
+    diagnostics.gauges().forEach((name, value) -> map.put("gauge." + name, value));
+
+    jvm().forEach((name, value) -> map.put(name.replace("{", ".").replaceAll("[=\"}]", "").replace(' ', '_'), value));
+
+    return map;
+  }
+
+  private static void flatten(final Map<String, Number> map, final String prefix, final Diagnostics.Element element) {
+    final LatencyHistogram.Snapshot snapshot = element.getLatency();
+
+    map.put(prefix + ".successes", element.getSuccesses());
+    map.put(prefix + ".errors", element.getErrors());
+    map.put(prefix + ".meanMillis", LatencyHistogram.toMillis(snapshot.getMeanNanos()));
+    map.put(prefix + ".p50Millis", LatencyHistogram.toMillis(snapshot.percentileNanos(0.50)));
+    map.put(prefix + ".p90Millis", LatencyHistogram.toMillis(snapshot.percentileNanos(0.90)));
+    map.put(prefix + ".p99Millis", LatencyHistogram.toMillis(snapshot.percentileNanos(0.99)));
+    map.put(prefix + ".maxMillis", LatencyHistogram.toMillis(snapshot.getMaxNanos()));
+  }
+}
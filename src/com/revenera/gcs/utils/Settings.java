@@ -0,0 +1,58 @@
+package com.revenera.gcs.utils;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Service settings, resolved from JVM system properties (-Drevenera.xxx=...)
+ *
+ * A value that does not parse is reported and the fallback used, settings are mostly read in static
+ * initializers where a failure would break the class for the life of the JVM. Reported on stderr, the log reads
+ * its own settings from here.
+ */
+public final class Settings {
+
+  private Settings() {
+  }
+
+  public static Optional<String> find(final String key) {
+    return Optional.ofNullable(System.getProperty(key)).map(String::trim).filter(value -> !value.isEmpty());
+  }
+
+  public static String get(final String key, final String fallback) {
+    return find(key).orElse(fallback);
+  }
+
+  public static int getInt(final String key, final int fallback) {
+    return parse(key, Integer::valueOf, fallback);
+  }
+
+  public static long getLong(final String key, final long fallback) {
+    return parse(key, Long::valueOf, fallback);
+  }
+
+  public static boolean getBoolean(final String key, final boolean fallback) {
+    return find(key).map(Boolean::parseBoolean).orElse(fallback);
+  }
+
+  public static <E extends Enum<E>> E getEnum(final String key, final E fallback) {
+    Objects.requireNonNull(fallback);
+    return parse(key, value -> Enum.valueOf(fallback.getDeclaringClass(), value), fallback);
+  }
+
+  private static <T> T parse(final String key, final Function<String, T> parser, final T fallback) {
+    final Optional<String> value = find(key);
+    if (!value.isPresent()) {
+      return fallback;
+    }
+
+    try {
+      return parser.apply(value.get());
+    }
+    catch (final IllegalArgumentException e) {
+      System.err.println("setting " + key + "=" + value.get() + " is not valid, using " + fallback + " | " + e.getMessage());
+      return fallback;
+    }
+  }
+}